@@ -0,0 +1,97 @@
+package com.dws.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Thin HTTP client for the {@code /v1/accounts} API.
+ */
+public class AccountsClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String accountsUrl;
+
+    public AccountsClient(String baseUrl, int threads) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .executor(Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+        this.accountsUrl = baseUrl + "/v1/accounts";
+    }
+
+    /**
+     * Creates an account and returns the response status; 400 means it already exists.
+     */
+    public int createAccount(String accountId, BigDecimal balance) throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode().put("accountId", accountId).put("balance", balance);
+        return httpClient.send(post(accountsUrl, body).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Returns the balance of an account, or {@code null} when it does not exist.
+     */
+    public BigDecimal getBalance(String accountId) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(get(accountId), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || response.body().isEmpty()) {
+            return null;
+        }
+        JsonNode account = objectMapper.readTree(response.body());
+        return account.get("balance").decimalValue();
+    }
+
+    public CompletableFuture<Integer> getAccountAsync(String accountId) {
+        return httpClient.sendAsync(get(accountId), HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    /**
+     * Transfers money on behalf of {@code clientId}, sent as the X-Client-Id header admission
+     * control rate limits by when the request comes through a trusted proxy.
+     */
+    public CompletableFuture<Integer> transferAsync(String clientId, String accountFrom, String accountTo,
+                                                    BigDecimal amount) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("accountFrom", accountFrom)
+                .put("accountTo", accountTo)
+                .put("amount", amount);
+        HttpRequest request = post(accountsUrl + "/transfer", body).header("X-Client-Id", clientId).build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest get(String accountId) {
+        return HttpRequest.newBuilder(URI.create(accountsUrl + "/"
+                        + URLEncoder.encode(accountId, StandardCharsets.UTF_8).replace("+", "%20")))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest.Builder post(String url, JsonNode body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+    }
+}
@@ -0,0 +1,207 @@
+package com.dws.challenge.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator for a running instance of the service.
+ * <p>
+ * Without {@code --replay} it creates {@code --accounts} accounts and drives an open-model mix of
+ * transfers and reads against them at {@code --rate} requests per second, picking accounts with a
+ * Zipf skew. With {@code --replay=transfers.ndjson} it replays a recorded transfer log instead,
+ * creating any account of the log that does not exist yet.
+ * Either way it prints latency percentiles and throughput, then checks that the total balance of
+ * the accounts involved is unchanged, the same invariant MoneyTransferServiceConcurrencyTest
+ * asserts in-process.
+ * <p>
+ * Each transfer carries an X-Client-Id derived from its source account, or from a pool of
+ * {@code --client-pool} ids, so traffic spreads over client buckets the way real clients would.
+ * When admission control is enabled on the service, it only honours that header from the
+ * addresses in {@code admission.client.trusted-proxies}; otherwise it limits by remote address, and
+ * the whole run shares one {@code admission.client.rate-per-second} bucket and mostly measures 429
+ * responses. List the load generator's address there, or raise the limit, before driving rates
+ * above it.
+ * <pre>
+ * ./gradlew :loadtest:run --args="--rate=2000 --duration=60 --accounts=10000 --zipf=1.1"
+ * ./gradlew :loadtest:run --args="--replay=/tmp/transfers.ndjson --speed=2"
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final LoadTestOptions options;
+    private final AccountsClient client;
+    private final OpenLoopDriver driver = new OpenLoopDriver();
+    private final OperationStats transfers = new OperationStats("transfers");
+    private final OperationStats reads = new OperationStats("reads");
+
+    public LoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.client = new AccountsClient(options.getBaseUrl(), options.getThreads());
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean passed = new LoadTest(LoadTestOptions.parse(args)).run(System.out);
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Runs the configured workload and returns whether every request completed without failing and the
+     * balance was conserved. Rejected (400) and throttled (429) requests do not count as failures.
+     */
+    public boolean run(PrintStream out) throws IOException, InterruptedException {
+        List<TransferRecord> records = options.getReplayLog() != null
+                ? TransferRecord.read(Path.of(options.getReplayLog()))
+                : null;
+        List<String> accountIds = records != null ? accountsOf(records) : generatedAccounts();
+        createAccounts(accountIds, out);
+        BigDecimal totalBefore = totalBalance(accountIds);
+
+        long startNanos = System.nanoTime();
+        if (records != null) {
+            out.printf("Replaying %d transfers over %d accounts%n", records.size(), accountIds.size());
+            replay(records, startNanos);
+        } else {
+            out.printf("Driving %.0f requests/s for %ds over %d accounts (zipf=%.2f, reads=%.0f%%)%n",
+                    options.getRate(), options.getDurationSeconds(), accountIds.size(), options.getZipfExponent(),
+                    options.getReadRatio() * 100);
+            generate(accountIds, startNanos);
+        }
+        boolean drained = driver.awaitCompletion(DRAIN_TIMEOUT);
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        transfers.print(out, elapsedSeconds);
+        reads.print(out, elapsedSeconds);
+        if (options.getHistogramOutput() != null) {
+            try (PrintStream histograms = new PrintStream(Files.newOutputStream(Path.of(options.getHistogramOutput())),
+                    false, StandardCharsets.UTF_8)) {
+                transfers.printDistribution(histograms);
+                reads.printDistribution(histograms);
+            }
+        }
+        if (!drained) {
+            out.println("Requests still outstanding after " + DRAIN_TIMEOUT.getSeconds() + "s, skipping balance check");
+            return false;
+        }
+
+        BigDecimal totalAfter = totalBalance(accountIds);
+        boolean conserved = totalBefore != null && totalAfter != null && totalBefore.compareTo(totalAfter) == 0;
+        out.printf("Balance conservation: %s (before=%s, after=%s)%n", conserved ? "OK" : "VIOLATED", totalBefore,
+                totalAfter);
+        long failed = transfers.getFailed() + reads.getFailed();
+        if (failed > 0) {
+            out.println(failed + " requests failed");
+        }
+        return conserved && failed == 0;
+    }
+
+    private void generate(List<String> accountIds, long startNanos) {
+        Random random = new Random();
+        ZipfSampler sampler = new ZipfSampler(accountIds.size(), options.getZipfExponent());
+        BigDecimal amount = options.getAmount();
+        double readRatio = options.getReadRatio();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+
+        // Poisson arrivals: exponentially distributed gaps around the mean
+        double intendedNanos = startNanos;
+        while ((intendedNanos += -Math.log(1 - random.nextDouble()) * meanGapNanos) < endNanos) {
+            if (random.nextDouble() < readRatio) {
+                String accountId = accountIds.get(sampler.sample(random));
+                driver.issue((long) intendedNanos, reads, () -> client.getAccountAsync(accountId));
+            } else {
+                int from = sampler.sample(random);
+                int to;
+                do {
+                    to = sampler.sample(random);
+                } while (to == from && accountIds.size() > 1);
+                String accountFrom = accountIds.get(from);
+                String accountTo = accountIds.get(to);
+                String clientId = clientId(accountFrom);
+                driver.issue((long) intendedNanos, transfers,
+                        () -> client.transferAsync(clientId, accountFrom, accountTo, amount));
+            }
+        }
+    }
+
+    private void replay(List<TransferRecord> records, long startNanos) {
+        // TransferRecord.read rejects logs that time only some of their lines
+        boolean timed = !records.isEmpty() && records.get(0).getOffsetMillis() >= 0;
+        double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1) / options.getSpeed();
+        double gapNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+
+        for (int i = 0; i < records.size(); i++) {
+            TransferRecord record = records.get(i);
+            long intendedNanos = startNanos + (long) (timed
+                    ? Math.max(0, record.getOffsetMillis()) * nanosPerMilli
+                    : i * gapNanos);
+            driver.issue(intendedNanos, transfers,
+                    () -> client.transferAsync(clientId(record.getAccountFrom()), record.getAccountFrom(),
+                            record.getAccountTo(), record.getAmount()));
+        }
+    }
+
+    private String clientId(String accountFrom) {
+        int pool = options.getClientPool();
+        return options.getClientIdPrefix() + "-"
+                + (pool > 0 ? String.valueOf(Math.floorMod(accountFrom.hashCode(), pool)) : accountFrom);
+    }
+
+    private List<String> generatedAccounts() {
+        String prefix = options.getAccountPrefix();
+        List<String> accountIds = new ArrayList<>(options.getAccounts());
+        for (int i = 0; i < options.getAccounts(); i++) {
+            accountIds.add(prefix + i);
+        }
+        return accountIds;
+    }
+
+    /**
+     * Creates the accounts with the initial balance; accounts that already exist keep their balance.
+     */
+    private void createAccounts(List<String> accountIds, PrintStream out) throws IOException, InterruptedException {
+        int created = 0;
+        for (String accountId : accountIds) {
+            if (client.createAccount(accountId, options.getInitialBalance()) == 201) {
+                created++;
+            }
+        }
+        out.printf("Created %d of %d accounts, the others already existed%n", created, accountIds.size());
+    }
+
+    private static List<String> accountsOf(List<TransferRecord> records) {
+        Set<String> accountIds = new LinkedHashSet<>();
+        for (TransferRecord record : records) {
+            accountIds.add(record.getAccountFrom());
+            accountIds.add(record.getAccountTo());
+        }
+        return new ArrayList<>(accountIds);
+    }
+
+    /**
+     * Sums the balances of the given accounts, or returns {@code null} if one of them does not exist.
+     */
+    private BigDecimal totalBalance(List<String> accountIds) throws IOException, InterruptedException {
+        BigDecimal total = BigDecimal.ZERO;
+        for (String accountId : accountIds) {
+            BigDecimal balance = client.getBalance(accountId);
+            if (balance == null) {
+                return null;
+            }
+            total = total.add(balance);
+        }
+        return total;
+    }
+}
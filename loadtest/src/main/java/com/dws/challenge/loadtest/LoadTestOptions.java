@@ -0,0 +1,108 @@
+package com.dws.challenge.loadtest;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load test, given as {@code --name=value}.
+ */
+public class LoadTestOptions {
+
+    private final Map<String, String> values;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.values = values;
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Options must be given as --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return new LoadTestOptions(values);
+    }
+
+    /** Base URL of the service under test. */
+    public String getBaseUrl() {
+        return values.getOrDefault("base-url", "http://localhost:18080");
+    }
+
+    /** NDJSON transfer log to replay; when absent a synthetic workload is generated. */
+    public String getReplayLog() {
+        return values.get("replay");
+    }
+
+    /** Number of accounts created for the synthetic workload. */
+    public int getAccounts() {
+        return Integer.parseInt(values.getOrDefault("accounts", "1000"));
+    }
+
+    /** Balance every created account starts with. */
+    public BigDecimal getInitialBalance() {
+        return new BigDecimal(values.getOrDefault("initial-balance", "1000.00"));
+    }
+
+    /** Prefix of the created account ids, unique per run by default so runs do not collide. */
+    public String getAccountPrefix() {
+        return values.getOrDefault("account-prefix", "lt-" + System.currentTimeMillis() + "-");
+    }
+
+    /** Open-model arrival rate in requests per second. */
+    public double getRate() {
+        return Double.parseDouble(values.getOrDefault("rate", "500"));
+    }
+
+    /** Length of the synthetic run in seconds. */
+    public int getDurationSeconds() {
+        return Integer.parseInt(values.getOrDefault("duration", "30"));
+    }
+
+    /** Zipf exponent of the account popularity; 0 picks accounts uniformly. */
+    public double getZipfExponent() {
+        return Double.parseDouble(values.getOrDefault("zipf", "1.0"));
+    }
+
+    /** Share of requests that read an account instead of transferring. */
+    public double getReadRatio() {
+        return Double.parseDouble(values.getOrDefault("read-ratio", "0.2"));
+    }
+
+    /** Amount moved by every synthetic transfer. */
+    public BigDecimal getAmount() {
+        return new BigDecimal(values.getOrDefault("amount", "1.00"));
+    }
+
+    /** Replay speed-up applied to the offsets recorded in the transfer log. */
+    public double getSpeed() {
+        return Double.parseDouble(values.getOrDefault("speed", "1.0"));
+    }
+
+    /** Prefix of the X-Client-Id header sent with every transfer. */
+    public String getClientIdPrefix() {
+        return values.getOrDefault("client-id", "loadtest");
+    }
+
+    /** Number of distinct client ids transfers are spread over; 0 uses one per source account. */
+    public int getClientPool() {
+        return Integer.parseInt(values.getOrDefault("client-pool", "0"));
+    }
+
+    /** Threads completing HTTP responses. */
+    public int getThreads() {
+        return Integer.parseInt(values.getOrDefault("threads", "16"));
+    }
+
+    /** Optional file receiving the full HdrHistogram percentile distributions. */
+    public String getHistogramOutput() {
+        return values.get("histogram-output");
+    }
+}
@@ -0,0 +1,57 @@
+package com.dws.challenge.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Issues requests on an open-model schedule: every request is sent at its intended time whether or
+ * not earlier ones have completed, and its latency is measured from that intended time. A slow
+ * server therefore shows up in the percentiles instead of silently lowering the offered load.
+ */
+public class OpenLoopDriver {
+
+    private final AtomicLong outstanding = new AtomicLong();
+
+    public void issue(long intendedNanos, OperationStats stats, Supplier<CompletableFuture<Integer>> request) {
+        long delay;
+        while ((delay = intendedNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(delay);
+        }
+
+        outstanding.incrementAndGet();
+        CompletableFuture<Integer> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            stats.recordFailure(System.nanoTime() - intendedNanos);
+            outstanding.decrementAndGet();
+            return;
+        }
+        response.whenComplete((status, error) -> {
+            long latencyNanos = System.nanoTime() - intendedNanos;
+            if (error != null) {
+                stats.recordFailure(latencyNanos);
+            } else {
+                stats.record(status, latencyNanos);
+            }
+            outstanding.decrementAndGet();
+        });
+    }
+
+    /**
+     * Waits for all issued requests to complete. Returns false if some are still outstanding after the timeout.
+     */
+    public boolean awaitCompletion(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (outstanding.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package com.dws.challenge.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters of one kind of request.
+ */
+public class OperationStats {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    public void record(int status, long latencyNanos) {
+        latencies.recordValue(latencyNanos);
+        if (status >= 200 && status < 300) {
+            succeeded.increment();
+        } else if (status == 400) {
+            rejected.increment();
+        } else if (status == 429) {
+            throttled.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    public void recordFailure(long latencyNanos) {
+        latencies.recordValue(latencyNanos);
+        failed.increment();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public void print(PrintStream out, double elapsedSeconds) {
+        long count = latencies.getTotalCount();
+        if (count == 0) {
+            return;
+        }
+        out.printf("%s: count=%d throughput=%.1f/s ok=%d rejected(400)=%d throttled(429)=%d failed=%d%n",
+                name, count, count / elapsedSeconds, succeeded.sum(), rejected.sum(), throttled.sum(), failed.sum());
+        out.printf("  latency ms: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f p99.99=%.3f max=%.3f%n",
+                latencies.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                latencies.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                latencies.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                latencies.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                latencies.getValueAtPercentile(99.99) / NANOS_PER_MILLI,
+                latencies.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    public void printDistribution(PrintStream out) {
+        if (latencies.getTotalCount() == 0) {
+            return;
+        }
+        out.println("# " + name + " latency (ms)");
+        latencies.outputPercentileDistribution(out, NANOS_PER_MILLI);
+    }
+}
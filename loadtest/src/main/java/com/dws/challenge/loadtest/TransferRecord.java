@@ -0,0 +1,85 @@
+package com.dws.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of a recorded transfer log:
+ * {@code {"accountFrom":"Id-1","accountTo":"Id-2","amount":12.50,"offsetMillis":1200}}.
+ * {@code offsetMillis} is the time since the start of the recording and is optional; logs without it
+ * are replayed at the configured rate. A log either times every line or none of them.
+ */
+public class TransferRecord {
+
+    private final String accountFrom;
+    private final String accountTo;
+    private final BigDecimal amount;
+    private final long offsetMillis;
+
+    public TransferRecord(String accountFrom, String accountTo, BigDecimal amount, long offsetMillis) {
+        this.accountFrom = accountFrom;
+        this.accountTo = accountTo;
+        this.amount = amount;
+        this.offsetMillis = offsetMillis;
+    }
+
+    public static List<TransferRecord> read(Path log) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        List<TransferRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            boolean timed = false;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.hasNonNull("accountFrom") || !node.hasNonNull("accountTo") || !node.hasNonNull("amount")) {
+                    throw new IOException("Line " + lineNumber + " of " + log + " needs accountFrom, accountTo and amount");
+                }
+                boolean timedLine = node.hasNonNull("offsetMillis");
+                if (!records.isEmpty() && timedLine != timed) {
+                    throw new IOException("Line " + lineNumber + " of " + log
+                            + (timedLine ? " has an offsetMillis but earlier lines do not"
+                                         : " lacks the offsetMillis of earlier lines"));
+                }
+                timed = timedLine;
+                records.add(new TransferRecord(
+                        node.get("accountFrom").asText(),
+                        node.get("accountTo").asText(),
+                        new BigDecimal(node.get("amount").asText()),
+                        timedLine ? node.get("offsetMillis").asLong() : -1));
+            }
+        }
+        return records;
+    }
+
+    public String getAccountFrom() {
+        return accountFrom;
+    }
+
+    public String getAccountTo() {
+        return accountTo;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    /** Offset from the start of the recording, or -1 when the log carries no timing. */
+    public long getOffsetMillis() {
+        return offsetMillis;
+    }
+}
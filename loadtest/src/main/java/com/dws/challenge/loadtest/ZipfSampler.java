@@ -0,0 +1,31 @@
+package com.dws.challenge.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples indexes in {@code [0, n)} where index {@code k} is drawn with a probability proportional to
+ * {@code 1 / (k + 1)^exponent}, so index 0 is the hottest account. An exponent of 0 is uniform.
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n <= 0 || exponent < 0) {
+            throw new IllegalArgumentException("Zipf sampler needs a positive size and a non-negative exponent");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+    }
+
+    public int sample(Random random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,44 @@
+package com.dws.challenge.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TransferRecordTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReadsTimedLog() throws IOException {
+        Path log = write("{\"accountFrom\":\"Id-1\",\"accountTo\":\"Id-2\",\"amount\":12.50,\"offsetMillis\":0}",
+                "{\"accountFrom\":\"Id-2\",\"accountTo\":\"Id-1\",\"amount\":1,\"offsetMillis\":1200}");
+
+        List<TransferRecord> records = TransferRecord.read(log);
+
+        assertEquals(2, records.size());
+        assertEquals(1200, records.get(1).getOffsetMillis());
+    }
+
+    @Test
+    public void testRejectsLogMixingTimedAndUntimedLines() throws IOException {
+        Path untimedFirst = write("{\"accountFrom\":\"Id-1\",\"accountTo\":\"Id-2\",\"amount\":1}",
+                "{\"accountFrom\":\"Id-2\",\"accountTo\":\"Id-1\",\"amount\":1,\"offsetMillis\":1200}");
+        Path timedFirst = write("{\"accountFrom\":\"Id-1\",\"accountTo\":\"Id-2\",\"amount\":1,\"offsetMillis\":0}",
+                "{\"accountFrom\":\"Id-2\",\"accountTo\":\"Id-1\",\"amount\":1}");
+
+        assertThrows(IOException.class, () -> TransferRecord.read(untimedFirst));
+        assertThrows(IOException.class, () -> TransferRecord.read(timedFirst));
+    }
+
+    private Path write(String... lines) throws IOException {
+        return Files.write(Files.createTempFile(directory, "transfers", ".ndjson"), List.of(lines));
+    }
+}
@@ -0,0 +1,42 @@
+package com.dws.challenge.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZipfSamplerTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    public void testHotAccountsDominateWithSkew() {
+        ZipfSampler sampler = new ZipfSampler(1000, 1.0);
+        int[] counts = sample(sampler, 1000);
+
+        // With exponent 1 the first account is drawn about twice as often as the second
+        assertTrue(counts[0] > counts[1] * 1.7 && counts[0] < counts[1] * 2.3);
+        assertTrue(counts[0] > counts[999] * 100);
+    }
+
+    @Test
+    public void testZeroExponentIsUniform() {
+        ZipfSampler sampler = new ZipfSampler(10, 0);
+        int[] counts = sample(sampler, 10);
+
+        for (int count : counts) {
+            assertEquals(SAMPLES / 10.0, count, SAMPLES / 100.0);
+        }
+    }
+
+    private static int[] sample(ZipfSampler sampler, int n) {
+        Random random = new Random(42);
+        int[] counts = new int[n];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,68 @@
+package com.dws.challenge;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.repository.AccountsRepositoryInMemory;
+import com.dws.challenge.service.MoneyTransferService;
+import com.dws.challenge.service.TransferVelocityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers through {@link MoneyTransferService} with a given share of them rejected for
+ * insufficient balance. Run with {@code ./gradlew jmh}; the gc profiler reports the allocation
+ * per transfer next to the throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransferRejectionBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Param({"0", "50", "100"})
+    private int rejectionPercent;
+
+    private MoneyTransferService moneyTransferService;
+    private boolean[] rejected;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        AccountsRepositoryInMemory accountsRepository = new AccountsRepositoryInMemory();
+        accountsRepository.createAccount(new Account("Id-rich", new BigDecimal("1000000000000.00")));
+        accountsRepository.createAccount(new Account("Id-empty", BigDecimal.ZERO));
+        accountsRepository.createAccount(new Account("Id-sink", BigDecimal.ZERO));
+
+        TransferVelocityService transferVelocityService = new TransferVelocityService(false, "reject", 60, 12, 1,
+                1, BigDecimal.ONE, 1, 1, 1, System::currentTimeMillis);
+        moneyTransferService = new MoneyTransferService(accountsRepository, (account, description) -> { },
+                transferVelocityService);
+
+        rejected = new boolean[100];
+        for (int i = 0; i < rejectionPercent; i++) {
+            rejected[i * 100 / Math.max(1, rejectionPercent) % 100] = true;
+        }
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        boolean reject = rejected[next];
+        next = (next + 1) % rejected.length;
+        try {
+            // Id-empty never receives money, so every transfer from it is rejected
+            moneyTransferService.transferMoney(reject ? "Id-empty" : "Id-rich", "Id-sink", AMOUNT);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dws.challenge;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.repository.AccountsRepositoryInMemory;
+import com.dws.challenge.service.MoneyTransferService;
+import com.dws.challenge.service.TransferVelocityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers between random pairs of accounts through {@link MoneyTransferService}, with the
+ * velocity stage disabled and enabled. The limits are high enough that nothing is rejected, so
+ * the difference between the two is the cost of scoring. Sample time mode reports the p99
+ * next to the mean; run with {@code ./gradlew jmh -Pjmh.includes=TransferVelocityBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransferVelocityBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int PAIRS = 1 << 16;
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Param({"false", "true"})
+    private boolean velocityEnabled;
+
+    private MoneyTransferService moneyTransferService;
+    private String[] fromIds;
+    private String[] toIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        AccountsRepositoryInMemory accountsRepository = new AccountsRepositoryInMemory();
+        String[] accountIds = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = "Id-" + i;
+            accountsRepository.createAccount(new Account(accountIds[i], new BigDecimal("1000000000000.00")));
+        }
+
+        TransferVelocityService transferVelocityService = new TransferVelocityService(velocityEnabled, "reject",
+                60, 12, 16384, Integer.MAX_VALUE, new BigDecimal("1000000000000000"), Integer.MAX_VALUE,
+                65536, 4, System::currentTimeMillis);
+        moneyTransferService = new MoneyTransferService(accountsRepository, (account, description) -> { },
+                transferVelocityService);
+
+        Random random = new Random(42);
+        fromIds = new String[PAIRS];
+        toIds = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            int from = random.nextInt(ACCOUNTS);
+            fromIds[i] = accountIds[from];
+            toIds[i] = accountIds[(from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS];
+        }
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        int pair = next;
+        next = (next + 1) & (PAIRS - 1);
+        try {
+            moneyTransferService.transferMoney(fromIds[pair], toIds[pair], AMOUNT);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
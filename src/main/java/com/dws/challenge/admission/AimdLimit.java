@@ -0,0 +1,38 @@
+package com.dws.challenge.admission;
+
+/**
+ * Additive increase, multiplicative decrease: the limit grows by one while requests complete within
+ * the latency threshold and the limit is actually being used, and is cut by the backoff ratio as soon
+ * as a request exceeds the threshold.
+ */
+public class AimdLimit implements ConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long thresholdNanos;
+
+    private volatile int limit;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long thresholdNanos) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inflight) {
+        if (rttNanos > thresholdNanos) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (inflight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dws.challenge.admission;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per client, kept in preallocated primitive arrays. Clients are hashed onto a fixed
+ * number of buckets and share a bucket on collision, so memory does not grow with the number of
+ * clients.
+ */
+public class ClientRateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final int bucketMask;
+    private final LongSupplier nanoClock;
+
+    private final double[] tokens;
+    private final long[] refilledAt;
+    private final Object[] stripeLocks;
+
+    public ClientRateLimiter(double ratePerSecond, int burst, int buckets, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || burst < 1 || buckets <= 0) {
+            throw new IllegalArgumentException("Client rate, burst and buckets must be positive");
+        }
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+
+        int highest = Integer.highestOneBit(buckets);
+        int bucketCount = highest == buckets ? buckets : highest << 1;
+        this.bucketMask = bucketCount - 1;
+        this.tokens = new double[bucketCount];
+        this.refilledAt = new long[bucketCount];
+        Arrays.fill(tokens, burst);
+        Arrays.fill(refilledAt, nanoClock.getAsLong());
+        this.stripeLocks = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Takes a token from the client's bucket. Returns 0 when a token was taken, otherwise the number of
+     * nanoseconds until the next token becomes available.
+     */
+    public long tryAcquire(String clientId) {
+        int h = clientId.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        int bucket = (h ^ (h >>> 13)) & bucketMask;
+
+        synchronized (stripeLocks[bucket & (STRIPES - 1)]) {
+            long now = nanoClock.getAsLong();
+            double available = Math.min(burst, tokens[bucket] + (now - refilledAt[bucket]) * tokensPerNano);
+            refilledAt[bucket] = now;
+            if (available >= 1) {
+                tokens[bucket] = available - 1;
+                return 0;
+            }
+            tokens[bucket] = available;
+            return (long) Math.ceil((1 - available) / tokensPerNano);
+        }
+    }
+}
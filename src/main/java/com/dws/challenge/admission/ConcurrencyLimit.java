@@ -0,0 +1,15 @@
+package com.dws.challenge.admission;
+
+/**
+ * Concurrency limit adjusted from measured request latency.
+ */
+public interface ConcurrencyLimit {
+
+    int getLimit();
+
+    /**
+     * Records the latency of a completed request and the number of requests in flight when it
+     * completed, the request itself included.
+     */
+    void onSample(long rttNanos, int inflight);
+}
@@ -0,0 +1,62 @@
+package com.dws.challenge.admission;
+
+/**
+ * Gradient limit: compares a short-term latency average with a long-term one. While the short-term
+ * latency stays within {@code tolerance} of the long-term average the limit keeps probing upwards by
+ * roughly {@code sqrt(limit)}; when it rises, the limit is scaled down by the ratio of the two.
+ */
+public class GradientLimit implements ConcurrencyLimit {
+
+    private static final double SHORT_WINDOW_WEIGHT = 0.1;
+    private static final double LONG_WINDOW_WEIGHT = 0.002;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inflight) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_WINDOW_WEIGHT;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_WINDOW_WEIGHT;
+
+        // Let the long-term average recover quickly once a burst has drained
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        // Only grow the limit when it is actually being used
+        if (newLimit > estimatedLimit && inflight * 2 < estimatedLimit) {
+            return;
+        }
+        estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,136 @@
+package com.dws.challenge.admission;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control for transfers: an adaptive concurrency limit driven by measured transfer
+ * latency, followed by a per-client token bucket. Requests over either limit are turned away straight
+ * away instead of queueing behind the account monitors.
+ * <p>
+ * Clients are identified by their authenticated principal, otherwise by remote address. The
+ * client id header is only taken from the proxies listed in {@code admission.client.trusted-proxies},
+ * since anyone else could rotate it to get a fresh bucket. Behind a load balancer that is not
+ * listed, all traffic shares the balancer's address and therefore one bucket. Admission control
+ * is off by default.
+ */
+@Component
+public class TransferAdmissionControl {
+
+    private final boolean enabled;
+    private final ConcurrencyLimit concurrencyLimit;
+    private final ClientRateLimiter clientRateLimiter;
+    private final Set<String> trustedProxies;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    @Autowired
+    public TransferAdmissionControl(@Value("${admission.enabled:false}") boolean enabled,
+                                    @Value("${admission.limit.algorithm:gradient}") String algorithm,
+                                    @Value("${admission.limit.initial:20}") int initialLimit,
+                                    @Value("${admission.limit.min:4}") int minLimit,
+                                    @Value("${admission.limit.max:500}") int maxLimit,
+                                    @Value("${admission.limit.aimd.threshold-millis:50}") long aimdThresholdMillis,
+                                    @Value("${admission.client.rate-per-second:100}") double clientRatePerSecond,
+                                    @Value("${admission.client.burst:200}") int clientBurst,
+                                    @Value("${admission.client.buckets:4096}") int clientBuckets,
+                                    @Value("${admission.client.trusted-proxies:}") String trustedProxies) {
+        this(enabled, concurrencyLimit(algorithm, initialLimit, minLimit, maxLimit, aimdThresholdMillis),
+                new ClientRateLimiter(clientRatePerSecond, clientBurst, clientBuckets, System::nanoTime),
+                Arrays.stream(trustedProxies.split(","))
+                        .map(String::trim)
+                        .filter(proxy -> !proxy.isEmpty())
+                        .collect(Collectors.toSet()));
+    }
+
+    public TransferAdmissionControl(boolean enabled, ConcurrencyLimit concurrencyLimit,
+                                    ClientRateLimiter clientRateLimiter, Set<String> trustedProxies) {
+        this.enabled = enabled;
+        this.concurrencyLimit = concurrencyLimit;
+        this.clientRateLimiter = clientRateLimiter;
+        this.trustedProxies = trustedProxies;
+    }
+
+    /**
+     * Returns the id a request is rate limited under: the authenticated principal if there is one,
+     * the client id header if the request came through a trusted proxy, and the remote address
+     * otherwise.
+     */
+    public String resolveClientId(Principal principal, String remoteAddress, String clientIdHeader) {
+        if (principal != null) {
+            return principal.getName();
+        }
+        if (clientIdHeader != null && trustedProxies.contains(remoteAddress)) {
+            return clientIdHeader;
+        }
+        return remoteAddress;
+    }
+
+    /**
+     * Tries to admit a transfer for the given client. Returns 0 when admitted, in which case
+     * {@link #release(long)} must be called once the transfer completes, otherwise the number of
+     * seconds the client should wait before retrying.
+     */
+    public long tryAcquire(String clientId) {
+        if (!enabled) {
+            return 0;
+        }
+        // Reserve the concurrency slot first, so requests turned away here keep their client's tokens
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= concurrencyLimit.getLimit()) {
+                return 1;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        long waitNanos = clientRateLimiter.tryAcquire(clientId);
+        if (waitNanos > 0) {
+            inflight.decrementAndGet();
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        }
+        return 0;
+    }
+
+    /**
+     * Releases an admitted transfer and feeds its latency, measured from {@code startNanos}, to the
+     * concurrency limit.
+     */
+    public void release(long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        int current = inflight.getAndDecrement();
+        concurrencyLimit.onSample(System.nanoTime() - startNanos, current);
+    }
+
+    public int getLimit() {
+        return concurrencyLimit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private static ConcurrencyLimit concurrencyLimit(String algorithm, int initialLimit, int minLimit, int maxLimit,
+                                                     long aimdThresholdMillis) {
+        switch (algorithm.toLowerCase()) {
+            case "aimd":
+                return new AimdLimit(initialLimit, minLimit, maxLimit, 0.9,
+                        TimeUnit.MILLISECONDS.toNanos(aimdThresholdMillis));
+            case "vegas":
+                return new VegasLimit(initialLimit, minLimit, maxLimit, 1000);
+            case "gradient":
+                return new GradientLimit(initialLimit, minLimit, maxLimit, 1.5, 0.2);
+            default:
+                throw new IllegalArgumentException(
+                        "Admission limit algorithm must be 'aimd', 'vegas' or 'gradient' but was " + algorithm);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.dws.challenge.admission;
+
+/**
+ * TCP Vegas style limit: estimates the queue built up in front of the account monitors from the
+ * ratio between the lowest latency seen and the current latency, grows the limit while that queue
+ * is small and shrinks it once it grows. The lowest latency is re-measured every
+ * {@code probeInterval} samples so it can follow a slower steady state.
+ */
+public class VegasLimit implements ConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeInterval;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private long rttNoLoadNanos;
+    private int samples;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit, int probeInterval) {
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inflight) {
+        if (++samples >= probeInterval) {
+            samples = 0;
+            rttNoLoadNanos = 0;
+        }
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = Math.max(1, rttNanos);
+            return;
+        }
+
+        // Only grow the limit when it is actually being used
+        boolean limitInUse = inflight * 2 >= estimatedLimit;
+        double log = Math.max(1, Math.log10(estimatedLimit));
+        double queueSize = Math.ceil(estimatedLimit * (1 - (double) rttNoLoadNanos / rttNanos));
+        if (queueSize <= log && limitInUse) {
+            estimatedLimit += 6 * log;
+        } else if (queueSize < 3 * log && limitInUse) {
+            estimatedLimit += log;
+        } else if (queueSize > 6 * log) {
+            estimatedLimit -= log;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+}
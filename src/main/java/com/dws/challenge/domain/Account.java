@@ -38,7 +38,7 @@ public class Account {
       throw new IllegalArgumentException("Withdrawal amount must be greater than zero.");
     }
     if (balance.compareTo(amount) < 0) {
-      throw new InsufficientBalanceException("Insufficient balance for withdrawal.");
+      throw InsufficientBalanceException.INSTANCE;
     }
     balance = balance.subtract(amount);
   }
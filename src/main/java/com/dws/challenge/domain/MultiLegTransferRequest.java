@@ -0,0 +1,27 @@
+package com.dws.challenge.domain;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class MultiLegTransferRequest {
+
+    /**
+     * Upper bound on the legs of each side. Every participant is locked for the whole transfer.
+     */
+    public static final int MAX_LEGS = 50;
+
+    @NotEmpty
+    @Size(max = MAX_LEGS)
+    @Valid
+    private List<TransferLeg> debits;
+
+    @NotEmpty
+    @Size(max = MAX_LEGS)
+    @Valid
+    private List<TransferLeg> credits;
+}
@@ -0,0 +1,23 @@
+package com.dws.challenge.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferLeg {
+
+    @NotEmpty
+    private String accountId;
+
+    @NotNull
+    @DecimalMin(value = "0.01", message = "Leg amount must be greater than zero")
+    private BigDecimal amount;
+}
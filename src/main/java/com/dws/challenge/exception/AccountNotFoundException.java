@@ -0,0 +1,19 @@
+package com.dws.challenge.exception;
+
+public class AccountNotFoundException extends Exception {
+
+    /**
+     * Shared instance for transfers naming an unknown account: no stack trace, no suppression, and
+     * a message that does not say which account, so nothing is built per rejection.
+     */
+    public static final AccountNotFoundException INSTANCE =
+            new AccountNotFoundException("One or both accounts not found", false);
+
+    public AccountNotFoundException(String message) {
+        super(message);
+    }
+
+    private AccountNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+}
@@ -1,7 +1,19 @@
 package com.dws.challenge.exception;
 
 public class InsufficientBalanceException extends Exception {
+
+    /**
+     * Shared instance for rejected transfers: no stack trace, and a message that does not name
+     * the account, so nothing is built per rejection.
+     */
+    public static final InsufficientBalanceException INSTANCE =
+            new InsufficientBalanceException("Insufficient balance", false);
+
     public InsufficientBalanceException(String message)  {
         super(message);
     }
+
+    private InsufficientBalanceException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
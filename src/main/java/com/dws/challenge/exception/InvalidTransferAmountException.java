@@ -1,7 +1,18 @@
 package com.dws.challenge.exception;
 
 public class InvalidTransferAmountException extends Exception {
+
+    /**
+     * Stackless instance shared by every rejected amount.
+     */
+    public static final InvalidTransferAmountException INSTANCE =
+            new InvalidTransferAmountException("Invalid transfer amount", false);
+
     public InvalidTransferAmountException(String message) {
         super(message);
     }
+
+    private InvalidTransferAmountException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
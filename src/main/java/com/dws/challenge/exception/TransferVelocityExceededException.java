@@ -0,0 +1,18 @@
+package com.dws.challenge.exception;
+
+public class TransferVelocityExceededException extends Exception {
+
+    /**
+     * Thrown for every over-limit transfer, so it is shared and carries no stack trace.
+     */
+    public static final TransferVelocityExceededException INSTANCE =
+            new TransferVelocityExceededException("Transfer velocity limit exceeded", false);
+
+    public TransferVelocityExceededException(String message) {
+        super(message);
+    }
+
+    private TransferVelocityExceededException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+}
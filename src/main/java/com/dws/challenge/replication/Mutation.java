@@ -0,0 +1,34 @@
+package com.dws.challenge.replication;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * A mutation applied on the leader, in the order followers have to apply it.
+ */
+@Data
+public class Mutation {
+
+    public enum Type {
+        CREATE,
+        TRANSFER,
+        MULTI_LEG_TRANSFER,
+        CLEAR
+    }
+
+    private final long sequence;
+
+    private final long timestamp;
+
+    private final Type type;
+
+    private final String accountId;
+
+    private final String accountToId;
+
+    private final BigDecimal amount;
+
+    private final Map<String, BigDecimal> balanceChanges;
+}
@@ -0,0 +1,126 @@
+package com.dws.challenge.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format of the replication stream. The leader opens the stream with its epoch and then sends
+ * frames, each starting with its kind. A batch frame carries the leader's last sequence followed by
+ * mutations; a batch frame without mutations is a heartbeat. A snapshot frame carries the balance
+ * of every account as of a sequence, and replaces the follower's state. Strings are written as
+ * their UTF-8 length followed by the bytes, since account ids have no length limit.
+ */
+final class MutationCodec {
+
+    static final int BATCH_FRAME = 0;
+    static final int SNAPSHOT_FRAME = 1;
+
+    private MutationCodec() {
+    }
+
+    static void writeBatch(DataOutputStream out, List<Mutation> batch, long leaderSequence) throws IOException {
+        out.writeByte(BATCH_FRAME);
+        out.writeLong(leaderSequence);
+        out.writeInt(batch.size());
+        for (Mutation mutation : batch) {
+            out.writeLong(mutation.getSequence());
+            out.writeLong(mutation.getTimestamp());
+            out.writeByte(mutation.getType().ordinal());
+            switch (mutation.getType()) {
+                case CREATE:
+                    writeString(out, mutation.getAccountId());
+                    writeString(out, mutation.getAmount().toString());
+                    break;
+                case TRANSFER:
+                    writeString(out, mutation.getAccountId());
+                    writeString(out, mutation.getAccountToId());
+                    writeString(out, mutation.getAmount().toString());
+                    break;
+                case MULTI_LEG_TRANSFER:
+                    out.writeInt(mutation.getBalanceChanges().size());
+                    for (Map.Entry<String, BigDecimal> balanceChange : mutation.getBalanceChanges().entrySet()) {
+                        writeString(out, balanceChange.getKey());
+                        writeString(out, balanceChange.getValue().toString());
+                    }
+                    break;
+                case CLEAR:
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown mutation type " + mutation.getType());
+            }
+        }
+    }
+
+    static void writeSnapshot(DataOutputStream out, ReplicationSnapshot snapshot) throws IOException {
+        out.writeByte(SNAPSHOT_FRAME);
+        out.writeLong(snapshot.getSequence());
+        out.writeLong(snapshot.getTimestamp());
+        out.writeInt(snapshot.getBalances().size());
+        for (Map.Entry<String, BigDecimal> balance : snapshot.getBalances().entrySet()) {
+            writeString(out, balance.getKey());
+            writeString(out, balance.getValue().toString());
+        }
+    }
+
+    /**
+     * Reads the body of a snapshot frame, after its kind.
+     */
+    static ReplicationSnapshot readSnapshot(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        long timestamp = in.readLong();
+        int accounts = in.readInt();
+        Map<String, BigDecimal> balances = new HashMap<>(accounts * 2);
+        for (int i = 0; i < accounts; i++) {
+            balances.put(readString(in), new BigDecimal(readString(in)));
+        }
+        return new ReplicationSnapshot(sequence, timestamp, balances);
+    }
+
+    static Mutation readMutation(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        long timestamp = in.readLong();
+        Mutation.Type type = Mutation.Type.values()[in.readUnsignedByte()];
+        switch (type) {
+            case CREATE:
+                return new Mutation(sequence, timestamp, type, readString(in), null, new BigDecimal(readString(in)),
+                        null);
+            case TRANSFER:
+                return new Mutation(sequence, timestamp, type, readString(in), readString(in), new BigDecimal(readString(in)),
+                        null);
+            case MULTI_LEG_TRANSFER:
+                int participants = in.readInt();
+                Map<String, BigDecimal> balanceChanges = new LinkedHashMap<>(participants * 2);
+                for (int i = 0; i < participants; i++) {
+                    balanceChanges.put(readString(in), new BigDecimal(readString(in)));
+                }
+                return new Mutation(sequence, timestamp, type, null, null, null, balanceChanges);
+            case CLEAR:
+                return new Mutation(sequence, timestamp, type, null, null, null, null);
+            default:
+                throw new IOException("Unknown mutation type " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
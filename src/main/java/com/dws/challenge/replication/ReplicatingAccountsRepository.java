@@ -0,0 +1,109 @@
+package com.dws.challenge.replication;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.AccountNotFoundException;
+import com.dws.challenge.exception.DuplicateAccountIdException;
+import com.dws.challenge.exception.InsufficientBalanceException;
+import com.dws.challenge.exception.InvalidTransferAmountException;
+import com.dws.challenge.repository.AccountsRepository;
+import com.dws.challenge.repository.AccountsRepositoryInMemory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Leader-side repository that records every successfully applied mutation in the
+ * {@link ReplicationLog}.
+ * <p>
+ * Transfers are already called while the monitors of all their accounts are held, so mutations
+ * touching the same account are logged in the order they were applied. Account creation takes the
+ * new account's monitor for the same reason, so it is logged before any transfer can see it.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "replication.role", havingValue = "leader")
+public class ReplicatingAccountsRepository implements AccountsRepository {
+
+    private final AccountsRepositoryInMemory delegate;
+    private final ReplicationLog replicationLog;
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public ReplicatingAccountsRepository(AccountsRepositoryInMemory delegate, ReplicationLog replicationLog) {
+        this.delegate = delegate;
+        this.replicationLog = replicationLog;
+    }
+
+    @Override
+    public void createAccount(Account account) throws DuplicateAccountIdException {
+        synchronized (account) {
+            snapshotLock.readLock().lock();
+            try {
+                delegate.createAccount(account);
+                replicationLog.append(Mutation.Type.CREATE, account.getAccountId(), null, account.getBalance());
+            } finally {
+                snapshotLock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Account getAccount(String accountId) {
+        return delegate.getAccount(accountId);
+    }
+
+    @Override
+    public void clearAccounts() {
+        snapshotLock.readLock().lock();
+        try {
+            delegate.clearAccounts();
+            replicationLog.append(Mutation.Type.CLEAR, null, null, null);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void transferMoney(String accountFromId, String accountToId, BigDecimal amount)
+            throws AccountNotFoundException, InsufficientBalanceException, InvalidTransferAmountException {
+        snapshotLock.readLock().lock();
+        try {
+            delegate.transferMoney(accountFromId, accountToId, amount);
+            replicationLog.append(Mutation.Type.TRANSFER, accountFromId, accountToId, amount);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void transferMoney(Map<String, BigDecimal> balanceChanges)
+            throws AccountNotFoundException, InsufficientBalanceException, InvalidTransferAmountException {
+        snapshotLock.readLock().lock();
+        try {
+            delegate.transferMoney(balanceChanges);
+            replicationLog.appendMultiLegTransfer(balanceChanges);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    public ReplicationSnapshot snapshot() {
+        snapshotLock.writeLock().lock();
+        try {
+            Map<String, BigDecimal> balances = new HashMap<>();
+            for (Account account : delegate.getAccounts()) {
+                balances.put(account.getAccountId(), account.getBalance());
+            }
+            return new ReplicationSnapshot(replicationLog.getLastSequence(), System.currentTimeMillis(), balances);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.dws.challenge.replication;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.repository.AccountsRepositoryInMemory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Follows a {@link ReplicationLeader}, applying its mutations to the local repository in order.
+ * <p>
+ * The follower remembers the epoch of the leader it follows next to the last sequence it applied.
+ * When the leader answers with another epoch, or a mutation is missing or fails to apply, the
+ * follower drops the epoch and reconnects, and the leader sends it a snapshot to start over from.
+ * <p>
+ * The replication lag is zero while the follower has applied everything the leader reported in
+ * its last frame, and otherwise the time since a frame last showed it caught up. The leader sends
+ * heartbeats while idle, so an idle leader does not make a follower look behind, and a
+ * disconnected follower reports a lag that grows from the moment it was last known caught up.
+ */
+@Component
+@ConditionalOnProperty(name = "replication.role", havingValue = "follower")
+@Slf4j
+public class ReplicationFollower {
+
+    private final AccountsRepositoryInMemory accountsRepository;
+    private final String leaderHost;
+    private final int leaderPort;
+    private final long reconnectMillis;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+    private volatile Socket socket;
+    private volatile long epoch;
+    private volatile long appliedSequence;
+    private volatile long caughtUpMillis = -1;
+    private volatile long leaderSequence = Long.MAX_VALUE;
+
+    @Autowired
+    public ReplicationFollower(AccountsRepositoryInMemory accountsRepository,
+                               @Value("${replication.leader-host:localhost}") String leaderHost,
+                               @Value("${replication.leader-port:19090}") int leaderPort,
+                               @Value("${replication.reconnect-millis:1000}") long reconnectMillis) {
+        this.accountsRepository = accountsRepository;
+        this.leaderHost = leaderHost;
+        this.leaderPort = leaderPort;
+        this.reconnectMillis = reconnectMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this::followLeader, "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+        thread.interrupt();
+        thread.join();
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Returns the replication lag in milliseconds, or -1 before the follower first caught up.
+     */
+    public long getReplicationLagMillis() {
+        long caughtUp = caughtUpMillis;
+        if (caughtUp < 0) {
+            return -1;
+        }
+        if (appliedSequence >= leaderSequence) {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - caughtUp);
+    }
+
+    private void followLeader() {
+        while (running) {
+            try (Socket current = new Socket(leaderHost, leaderPort)) {
+                socket = current;
+                if (!running) {
+                    break;
+                }
+                current.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(current.getOutputStream());
+                out.writeLong(epoch);
+                out.writeLong(appliedSequence);
+                out.flush();
+                log.info("Following leader {}:{} from sequence {}", leaderHost, leaderPort, appliedSequence);
+
+                // The buffer above the inflater serves the single-byte reads of DataInputStream
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(
+                        new BufferedInputStream(current.getInputStream()))));
+                long leaderEpoch = in.readLong();
+                boolean awaitingSnapshot = leaderEpoch != epoch;
+                while (running) {
+                    int frame = in.readUnsignedByte();
+                    if (frame == MutationCodec.SNAPSHOT_FRAME) {
+                        applySnapshot(MutationCodec.readSnapshot(in));
+                        epoch = leaderEpoch;
+                        awaitingSnapshot = false;
+                    } else if (frame == MutationCodec.BATCH_FRAME && !awaitingSnapshot) {
+                        leaderSequence = in.readLong();
+                        int count = in.readInt();
+                        for (int i = 0; i < count; i++) {
+                            apply(MutationCodec.readMutation(in));
+                        }
+                        markIfCaughtUp();
+                    } else {
+                        throw new IOException("Unexpected frame " + frame + " from leader epoch " + leaderEpoch);
+                    }
+                }
+            } catch (IOException e) {
+                leaderSequence = Long.MAX_VALUE;
+                if (running) {
+                    log.warn("Lost connection to replication leader {}:{}: {}", leaderHost, leaderPort, e.getMessage());
+                    pauseBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void applySnapshot(ReplicationSnapshot snapshot) {
+        accountsRepository.restoreAccounts(snapshot.getBalances());
+        // A snapshot is taken at the leader's last sequence
+        leaderSequence = snapshot.getSequence();
+        appliedSequence = snapshot.getSequence();
+        markIfCaughtUp();
+        log.info("Applied snapshot of {} accounts at sequence {}", snapshot.getBalances().size(),
+                snapshot.getSequence());
+    }
+
+    private void apply(Mutation mutation) throws IOException {
+        if (mutation.getSequence() != appliedSequence + 1) {
+            throw resync("Expected sequence " + (appliedSequence + 1) + " but received " + mutation.getSequence());
+        }
+        try {
+            switch (mutation.getType()) {
+                case CREATE:
+                    accountsRepository.createAccount(new Account(mutation.getAccountId(), mutation.getAmount()));
+                    break;
+                case TRANSFER:
+                    accountsRepository.transferMoney(mutation.getAccountId(), mutation.getAccountToId(),
+                            mutation.getAmount());
+                    break;
+                case MULTI_LEG_TRANSFER:
+                    accountsRepository.transferMoney(mutation.getBalanceChanges());
+                    break;
+                case CLEAR:
+                    accountsRepository.clearAccounts();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown mutation type " + mutation.getType());
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply replicated mutation {}", mutation, e);
+            throw resync("Failed to apply mutation " + mutation.getSequence());
+        }
+        appliedSequence = mutation.getSequence();
+    }
+
+    private void markIfCaughtUp() {
+        if (appliedSequence >= leaderSequence) {
+            caughtUpMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Forgets the leader's epoch, so the next connection starts over from a snapshot.
+     */
+    private IOException resync(String reason) {
+        epoch = 0;
+        return new IOException(reason + ", resynchronising from a snapshot");
+    }
+
+    private void pauseBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
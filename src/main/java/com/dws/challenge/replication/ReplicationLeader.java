@@ -0,0 +1,156 @@
+package com.dws.challenge.replication;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streams the {@link ReplicationLog} to followers over TCP.
+ * <p>
+ * A follower opens a connection and sends the epoch and last sequence number it applied. The
+ * leader answers with its own epoch and, when the follower comes from another epoch or needs
+ * mutations the log no longer retains, a snapshot of all accounts. It then sends frames of up to
+ * {@code replication.batch-size} mutations through a deflate stream that is sync-flushed once per
+ * frame, and a heartbeat frame whenever the log stays idle for {@code replication.heartbeat-millis}.
+ * <p>
+ * The stream is not authenticated and a snapshot holds every balance, so the leader listens on
+ * {@code replication.bind-address}, loopback unless configured otherwise.
+ */
+@Component
+@ConditionalOnProperty(name = "replication.role", havingValue = "leader")
+@Slf4j
+public class ReplicationLeader {
+
+    private final ReplicationLog replicationLog;
+    private final ReplicatingAccountsRepository accountsRepository;
+    private final String bindAddress;
+    private final int port;
+    private final int batchSize;
+    private final long heartbeatMillis;
+
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+    private volatile Thread acceptor;
+
+    @Autowired
+    public ReplicationLeader(ReplicationLog replicationLog, ReplicatingAccountsRepository accountsRepository,
+                             @Value("${replication.bind-address:127.0.0.1}") String bindAddress,
+                             @Value("${replication.port:19090}") int port,
+                             @Value("${replication.batch-size:512}") int batchSize,
+                             @Value("${replication.heartbeat-millis:200}") long heartbeatMillis) {
+        this.replicationLog = replicationLog;
+        this.accountsRepository = accountsRepository;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.batchSize = batchSize;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getByName(bindAddress));
+        acceptor = new Thread(this::acceptFollowers, "replication-leader");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Replication leader listening on {}:{}", bindAddress, serverSocket.getLocalPort());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        serverSocket.close();
+        // The port is only released once the acceptor has returned from accept
+        acceptor.join();
+        for (Socket follower : followers) {
+            follower.close();
+        }
+    }
+
+    public int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptFollowers() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket follower = serverSocket.accept();
+                follower.setTcpNoDelay(true);
+                followers.add(follower);
+                Thread sender = new Thread(() -> streamTo(follower), "replication-sender-" + follower.getPort());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Failed to accept replication follower", e);
+                }
+            }
+        }
+    }
+
+    private void streamTo(Socket follower) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (Socket socket = follower) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            long followerEpoch = in.readLong();
+            long sequence = in.readLong();
+            log.info("Follower {} connected from sequence {}", socket.getRemoteSocketAddress(), sequence);
+
+            // The buffer above the deflater keeps the single-byte writes of DataOutputStream off the
+            // deflater, which would otherwise be called once per byte
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()), deflater, true)));
+            out.writeLong(replicationLog.getEpoch());
+            if (followerEpoch != replicationLog.getEpoch() || sequence > replicationLog.getLastSequence()) {
+                sequence = sendSnapshot(socket, out);
+            }
+
+            List<Mutation> batch = new ArrayList<>(batchSize);
+            while (!socket.isClosed()) {
+                batch.clear();
+                long leaderSequence = replicationLog.awaitBatch(sequence, batch, batchSize, heartbeatMillis);
+                if (leaderSequence < 0) {
+                    sequence = sendSnapshot(socket, out);
+                    continue;
+                }
+                MutationCodec.writeBatch(out, batch, leaderSequence);
+                out.flush();
+                if (!batch.isEmpty()) {
+                    sequence = batch.get(batch.size() - 1).getSequence();
+                }
+            }
+        } catch (IOException e) {
+            log.info("Follower {} disconnected: {}", follower.getRemoteSocketAddress(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(follower);
+            deflater.end();
+        }
+    }
+
+    private long sendSnapshot(Socket socket, DataOutputStream out) throws IOException {
+        ReplicationSnapshot snapshot = accountsRepository.snapshot();
+        log.info("Sending follower {} a snapshot of {} accounts at sequence {}", socket.getRemoteSocketAddress(),
+                snapshot.getBalances().size(), snapshot.getSequence());
+        MutationCodec.writeSnapshot(out, snapshot);
+        out.flush();
+        return snapshot.getSequence();
+    }
+}
@@ -0,0 +1,89 @@
+package com.dws.challenge.replication;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ordered, in-memory log of the mutations applied on the leader.
+ * <p>
+ * Only the last {@code replication.log-capacity} mutations are retained, in a ring allocated up
+ * front. A follower that needs an older mutation is sent a snapshot of the accounts instead. The
+ * epoch is chosen at random when the log is created, so followers can tell a restarted leader,
+ * whose sequence numbers start over, from the one they were following.
+ */
+@Component
+@ConditionalOnProperty(name = "replication.role", havingValue = "leader")
+public class ReplicationLog {
+
+    private final Mutation[] mutations;
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private long lastSequence;
+
+    @Autowired
+    public ReplicationLog(@Value("${replication.log-capacity:65536}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Replication log capacity must be positive");
+        }
+        this.mutations = new Mutation[capacity];
+    }
+
+    public synchronized Mutation append(Mutation.Type type, String accountId, String accountToId, BigDecimal amount) {
+        return append(new Mutation(lastSequence + 1, System.currentTimeMillis(), type, accountId,
+                accountToId, amount, null));
+    }
+
+    public synchronized Mutation appendMultiLegTransfer(Map<String, BigDecimal> balanceChanges) {
+        return append(new Mutation(lastSequence + 1, System.currentTimeMillis(),
+                Mutation.Type.MULTI_LEG_TRANSFER, null, null, null, balanceChanges));
+    }
+
+    private Mutation append(Mutation mutation) {
+        lastSequence = mutation.getSequence();
+        mutations[slot(lastSequence)] = mutation;
+        notifyAll();
+        return mutation;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for mutations after {@code afterSequence} and copies at most
+     * {@code maxBatchSize} of them into {@code batch}. Returns the last sequence in the log, with an
+     * empty batch on timeout, or -1 when the mutations after {@code afterSequence} are no longer
+     * retained.
+     */
+    public synchronized long awaitBatch(long afterSequence, List<Mutation> batch, int maxBatchSize,
+                                        long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (lastSequence <= afterSequence && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        if (afterSequence < lastSequence - mutations.length) {
+            return -1;
+        }
+        long end = Math.min(lastSequence, afterSequence + maxBatchSize);
+        for (long sequence = afterSequence + 1; sequence <= end; sequence++) {
+            batch.add(mutations[slot(sequence)]);
+        }
+        return lastSequence;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % mutations.length);
+    }
+}
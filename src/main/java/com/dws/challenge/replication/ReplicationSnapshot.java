@@ -0,0 +1,19 @@
+package com.dws.challenge.replication;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * The balances of all accounts on the leader after the mutation with the given sequence.
+ */
+@Data
+public class ReplicationSnapshot {
+
+    private final long sequence;
+
+    private final long timestamp;
+
+    private final Map<String, BigDecimal> balances;
+}
@@ -1,12 +1,13 @@
 package com.dws.challenge.repository;
 
 import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.AccountNotFoundException;
 import com.dws.challenge.exception.DuplicateAccountIdException;
 import com.dws.challenge.exception.InsufficientBalanceException;
 import com.dws.challenge.exception.InvalidTransferAmountException;
 
-import javax.security.auth.login.AccountNotFoundException;
 import java.math.BigDecimal;
+import java.util.Map;
 
 public interface AccountsRepository {
 
@@ -18,4 +19,11 @@ public interface AccountsRepository {
 
   void transferMoney(String accountFromId, String accountToId, BigDecimal amount) throws AccountNotFoundException,
           InsufficientBalanceException, InvalidTransferAmountException;
+
+  /**
+   * Applies the net balance change of every participant of a multi-leg transfer as one unit. The
+   * changes must sum to zero, and either all of them are applied or none.
+   */
+  void transferMoney(Map<String, BigDecimal> balanceChanges) throws AccountNotFoundException,
+          InsufficientBalanceException, InvalidTransferAmountException;
 }
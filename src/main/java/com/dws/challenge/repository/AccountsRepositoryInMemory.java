@@ -1,13 +1,17 @@
 package com.dws.challenge.repository;
 
 import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.AccountNotFoundException;
 import com.dws.challenge.exception.DuplicateAccountIdException;
 import com.dws.challenge.exception.InsufficientBalanceException;
 import com.dws.challenge.exception.InvalidTransferAmountException;
 import org.springframework.stereotype.Repository;
 
-import javax.security.auth.login.AccountNotFoundException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -35,6 +39,22 @@ public class AccountsRepositoryInMemory implements AccountsRepository {
         accounts.clear();
     }
 
+    public Collection<Account> getAccounts() {
+        return Collections.unmodifiableCollection(accounts.values());
+    }
+
+    /**
+     * Makes the repository hold exactly the given accounts and balances, updating accounts that
+     * already exist in place so they stay readable throughout.
+     */
+    public void restoreAccounts(Map<String, BigDecimal> balances) {
+        for (Map.Entry<String, BigDecimal> balance : balances.entrySet()) {
+            Account account = accounts.computeIfAbsent(balance.getKey(), Account::new);
+            account.setBalance(balance.getValue());
+        }
+        accounts.keySet().retainAll(balances.keySet());
+    }
+
 
     public void transferMoney(String accountFromId, String accountToId, BigDecimal amount)
             throws AccountNotFoundException, InsufficientBalanceException, InvalidTransferAmountException {
@@ -42,20 +62,56 @@ public class AccountsRepositoryInMemory implements AccountsRepository {
         Account accountTo = getAccount(accountToId);
 
         if (accountFrom == null || accountTo == null) {
-            throw new AccountNotFoundException("One or both accounts not found");
+            throw AccountNotFoundException.INSTANCE;
         }
 
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new InvalidTransferAmountException("Invalid transfer amount");
+            throw InvalidTransferAmountException.INSTANCE;
         }
 
         BigDecimal accountFromBalance = accountFrom.getBalance();
         if (accountFromBalance.compareTo(amount) < 0) {
-            throw new InsufficientBalanceException("Insufficient balance in account " + accountFromId);
+            throw InsufficientBalanceException.INSTANCE;
         }
 
         // Perform the transfer within the repository
         accountFrom.withdraw(amount);
         accountTo.deposit(amount);
     }
+
+    @Override
+    public void transferMoney(Map<String, BigDecimal> balanceChanges)
+            throws AccountNotFoundException, InsufficientBalanceException, InvalidTransferAmountException {
+        List<Account> participants = new ArrayList<>(balanceChanges.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<String, BigDecimal> balanceChange : balanceChanges.entrySet()) {
+            Account account = getAccount(balanceChange.getKey());
+            if (account == null) {
+                throw AccountNotFoundException.INSTANCE;
+            }
+            participants.add(account);
+            total = total.add(balanceChange.getValue());
+        }
+
+        if (total.compareTo(BigDecimal.ZERO) != 0) {
+            throw InvalidTransferAmountException.INSTANCE;
+        }
+
+        // Check every debit before applying anything so the transfer is all or nothing
+        for (Account account : participants) {
+            BigDecimal change = balanceChanges.get(account.getAccountId());
+            if (change.signum() < 0 && account.getBalance().compareTo(change.negate()) < 0) {
+                throw InsufficientBalanceException.INSTANCE;
+            }
+        }
+
+        for (Account account : participants) {
+            BigDecimal change = balanceChanges.get(account.getAccountId());
+            if (change.signum() < 0) {
+                account.withdraw(change.negate());
+            } else if (change.signum() > 0) {
+                account.deposit(change);
+            }
+        }
+    }
 }
@@ -1,15 +1,27 @@
 package com.dws.challenge.service;
 
 import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.MultiLegTransferRequest;
+import com.dws.challenge.domain.TransferLeg;
+import com.dws.challenge.exception.AccountNotFoundException;
 import com.dws.challenge.exception.InsufficientBalanceException;
 import com.dws.challenge.exception.InvalidTransferAmountException;
+import com.dws.challenge.exception.TransferVelocityExceededException;
 import com.dws.challenge.repository.AccountsRepository;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.security.auth.login.AccountNotFoundException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class MoneyTransferService {
@@ -17,28 +29,34 @@ public class MoneyTransferService {
     @Getter
     private final AccountsRepository accountsRepository;
     private final NotificationService notificationService;
+    private final TransferVelocityService transferVelocityService;
 
     @Autowired
-    public MoneyTransferService(AccountsRepository accountsRepository, NotificationService notificationService) {
+    public MoneyTransferService(AccountsRepository accountsRepository, NotificationService notificationService,
+                                TransferVelocityService transferVelocityService) {
         this.accountsRepository = accountsRepository;
         this.notificationService = notificationService;
+        this.transferVelocityService = transferVelocityService;
     }
 
     public void transferMoney(String accountFromId, String accountToId, BigDecimal amount) throws AccountNotFoundException,
-            InsufficientBalanceException, InvalidTransferAmountException {
+            InsufficientBalanceException, InvalidTransferAmountException, TransferVelocityExceededException {
         // Fetch both accounts from the repository
         Account accountFrom = accountsRepository.getAccount(accountFromId);
         Account accountTo = accountsRepository.getAccount(accountToId);
 
         if (accountFrom == null || accountTo == null) {
-            throw new AccountNotFoundException("One or both accounts not found");
+            throw AccountNotFoundException.INSTANCE;
         }
 
         // Ensure that the amount is positive
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new InvalidTransferAmountException("Invalid transfer amount");
+            throw InvalidTransferAmountException.INSTANCE;
         }
 
+        // Score the transfer against the source account's recent activity before taking any lock
+        transferVelocityService.checkTransfer(accountFromId, accountToId, amount);
+
         Account accountMax = (accountFromId.compareTo(accountToId) > 0) ? accountFrom : accountTo;
         Account accountMin = (accountFromId.compareTo(accountToId) > 0) ? accountTo   : accountFrom;
 
@@ -55,4 +73,90 @@ public class MoneyTransferService {
         notificationMessage = "Amount " + amount + " received in account " + accountToId;
         notificationService.notifyAboutTransfer(accountFrom, notificationMessage);
     }
-}
\ No newline at end of file
+
+    /**
+     * Moves money from the debit legs to the credit legs as one atomic transfer. Every participant
+     * is locked once, in the same descending id order as {@link #transferMoney(String, String, BigDecimal)},
+     * and is notified once about its net balance change. A participant whose debits and credits cancel
+     * out is neither locked nor notified. Each side is limited to {@link MultiLegTransferRequest#MAX_LEGS}
+     * legs.
+     */
+    public void transferMoney(List<TransferLeg> debits, List<TransferLeg> credits) throws AccountNotFoundException,
+            InsufficientBalanceException, InvalidTransferAmountException, TransferVelocityExceededException {
+        if (debits.size() > MultiLegTransferRequest.MAX_LEGS || credits.size() > MultiLegTransferRequest.MAX_LEGS) {
+            throw InvalidTransferAmountException.INSTANCE;
+        }
+
+        // Net balance change per participant, ordered the way the account monitors are taken
+        Map<String, BigDecimal> balanceChanges = new TreeMap<>(Comparator.reverseOrder());
+        Map<String, BigDecimal> debitTotals = new HashMap<>();
+        BigDecimal debited = BigDecimal.ZERO;
+        for (TransferLeg debit : debits) {
+            if (debit.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw InvalidTransferAmountException.INSTANCE;
+            }
+            balanceChanges.merge(debit.getAccountId(), debit.getAmount().negate(), BigDecimal::add);
+            debitTotals.merge(debit.getAccountId(), debit.getAmount(), BigDecimal::add);
+            debited = debited.add(debit.getAmount());
+        }
+        Set<String> creditAccountIds = new HashSet<>();
+        BigDecimal credited = BigDecimal.ZERO;
+        for (TransferLeg credit : credits) {
+            if (credit.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw InvalidTransferAmountException.INSTANCE;
+            }
+            balanceChanges.merge(credit.getAccountId(), credit.getAmount(), BigDecimal::add);
+            creditAccountIds.add(credit.getAccountId());
+            credited = credited.add(credit.getAmount());
+        }
+
+        // Debits and credits have to cancel out
+        if (debits.isEmpty() || credits.isEmpty() || debited.compareTo(credited) != 0) {
+            throw InvalidTransferAmountException.INSTANCE;
+        }
+
+        // Every named account has to exist, but one whose debits and credits cancel out is left alone
+        List<Account> participants = new ArrayList<>(balanceChanges.size());
+        Iterator<Map.Entry<String, BigDecimal>> changes = balanceChanges.entrySet().iterator();
+        while (changes.hasNext()) {
+            Map.Entry<String, BigDecimal> change = changes.next();
+            Account account = accountsRepository.getAccount(change.getKey());
+            if (account == null) {
+                throw AccountNotFoundException.INSTANCE;
+            }
+            if (change.getValue().signum() == 0) {
+                changes.remove();
+            } else {
+                participants.add(account);
+            }
+        }
+
+        // Score every debited account once against the credited accounts before taking any lock
+        transferVelocityService.checkMultiLegTransfer(debitTotals, creditAccountIds);
+
+        if (participants.isEmpty()) {
+            return;
+        }
+        transferLocked(participants, 0, balanceChanges);
+
+        // Notify every participant once about its net change
+        for (Account participant : participants) {
+            BigDecimal change = balanceChanges.get(participant.getAccountId());
+            String notificationMessage = change.signum() < 0
+                    ? "Amount " + change.negate() + " debited from account " + participant.getAccountId() + " in a multi-leg transfer"
+                    : "Amount " + change + " credited to account " + participant.getAccountId() + " in a multi-leg transfer";
+            notificationService.notifyAboutTransfer(participant, notificationMessage);
+        }
+    }
+
+    private void transferLocked(List<Account> participants, int index, Map<String, BigDecimal> balanceChanges)
+            throws AccountNotFoundException, InsufficientBalanceException, InvalidTransferAmountException {
+        if (index == participants.size()) {
+            accountsRepository.transferMoney(balanceChanges);
+            return;
+        }
+        synchronized (participants.get(index)) {
+            transferLocked(participants, index + 1, balanceChanges);
+        }
+    }
+}
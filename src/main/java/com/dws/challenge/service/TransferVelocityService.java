@@ -0,0 +1,342 @@
+package com.dws.challenge.service;
+
+import com.dws.challenge.exception.TransferVelocityExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process velocity scoring for transfers, run before the account locks are taken.
+ * <p>
+ * Every source account is hashed onto a fixed table of slots. Each slot owns a ring buffer of
+ * time buckets holding the number of transfers, the amount moved and the number of new
+ * counterparties. Accounts that hash onto the same slot share its counters while either has
+ * activity in the window. That can only make the check stricter, and an account can never
+ * escape its history by alternating with a colliding one; the slot table should be sized well
+ * above the number of accounts active in a window to keep such sharing rare.
+ * <p>
+ * Counterparty novelty is answered by count-min sketches over (from, to) pairs, one per window
+ * and two generations deep: a counterparty is new when the pair was not used in the current or
+ * the previous window, and the sketches never fill up with pairs that stopped being used. All
+ * state is allocated up front, so memory is bounded by the configured sizes and scoring a
+ * transfer does not allocate.
+ */
+@Service
+@Slf4j
+public class TransferVelocityService {
+
+    private static final int STRIPES = 64;
+
+    private final boolean enabled;
+    private final boolean rejecting;
+    private final int maxTransfers;
+    private final double maxAmount;
+    private final int maxNewCounterparties;
+
+    private final long windowMillis;
+    private final long bucketMillis;
+    private final int buckets;
+    private final int slotMask;
+    private final LongSupplier clock;
+
+    private final long[] bucketEpochs;
+    private final int[] transferCounts;
+    private final double[] transferAmounts;
+    private final int[] newCounterpartyCounts;
+    private final ReentrantLock[] stripeLocks;
+
+    private final AtomicIntegerArray[] sketches;
+    private final int sketchDepth;
+    private final int sketchWidthMask;
+    private volatile long sketchGeneration;
+
+    @Autowired
+    public TransferVelocityService(@Value("${transfer.velocity.enabled:false}") boolean enabled,
+                                   @Value("${transfer.velocity.mode:reject}") String mode,
+                                   @Value("${transfer.velocity.window-seconds:60}") int windowSeconds,
+                                   @Value("${transfer.velocity.buckets:12}") int buckets,
+                                   @Value("${transfer.velocity.slots:16384}") int slots,
+                                   @Value("${transfer.velocity.max-transfers:100}") int maxTransfers,
+                                   @Value("${transfer.velocity.max-amount:100000}") BigDecimal maxAmount,
+                                   @Value("${transfer.velocity.max-new-counterparties:20}") int maxNewCounterparties,
+                                   @Value("${transfer.velocity.sketch-width:65536}") int sketchWidth,
+                                   @Value("${transfer.velocity.sketch-depth:4}") int sketchDepth) {
+        this(enabled, mode, windowSeconds, buckets, slots, maxTransfers, maxAmount, maxNewCounterparties,
+                sketchWidth, sketchDepth, System::currentTimeMillis);
+    }
+
+    public TransferVelocityService(boolean enabled, String mode, int windowSeconds, int buckets, int slots,
+                                   int maxTransfers, BigDecimal maxAmount, int maxNewCounterparties,
+                                   int sketchWidth, int sketchDepth, LongSupplier clock) {
+        if (windowSeconds <= 0 || buckets <= 0 || slots <= 0 || sketchWidth <= 0 || sketchDepth <= 0) {
+            throw new IllegalArgumentException("Transfer velocity window, buckets, slots and sketch sizes must be positive");
+        }
+        if (!"reject".equalsIgnoreCase(mode) && !"flag".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Transfer velocity mode must be 'reject' or 'flag' but was " + mode);
+        }
+        this.enabled = enabled;
+        this.rejecting = "reject".equalsIgnoreCase(mode);
+        this.maxTransfers = maxTransfers;
+        this.maxAmount = maxAmount.doubleValue();
+        this.maxNewCounterparties = maxNewCounterparties;
+        this.windowMillis = windowSeconds * 1000L;
+        this.bucketMillis = Math.max(1L, windowMillis / buckets);
+        this.buckets = buckets;
+        this.clock = clock;
+
+        int slotCount = powerOfTwoAtLeast(slots);
+        this.slotMask = slotCount - 1;
+        this.bucketEpochs = new long[slotCount * buckets];
+        Arrays.fill(bucketEpochs, Long.MIN_VALUE);
+        this.transferCounts = new int[slotCount * buckets];
+        this.transferAmounts = new double[slotCount * buckets];
+        this.newCounterpartyCounts = new int[slotCount * buckets];
+        this.stripeLocks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+
+        int width = powerOfTwoAtLeast(sketchWidth);
+        this.sketchWidthMask = width - 1;
+        this.sketchDepth = sketchDepth;
+        this.sketches = new AtomicIntegerArray[] {
+                new AtomicIntegerArray(width * sketchDepth), new AtomicIntegerArray(width * sketchDepth)};
+        this.sketchGeneration = clock.getAsLong() / windowMillis;
+    }
+
+    /**
+     * Scores a transfer against the sliding windows of its source account and records it.
+     * In reject mode a transfer over any limit is not recorded and fails; in flag mode it is
+     * recorded and logged.
+     */
+    public void checkTransfer(String accountFromId, String accountToId, BigDecimal amount)
+            throws TransferVelocityExceededException {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long generation = rotateSketches(now);
+        long epoch = now / bucketMillis;
+        int slot = slotOf(accountFromId);
+        long pairHash = pairHash(accountFromId, accountToId);
+        double transferAmount = amount.doubleValue();
+
+        boolean exceeded;
+        ReentrantLock stripeLock = stripeLocks[slot & (STRIPES - 1)];
+        stripeLock.lock();
+        try {
+            // Novelty is checked and marked under the same lock, so concurrent first transfers
+            // to a counterparty count it once
+            int newCounterparties = isKnownCounterparty(pairHash, generation) ? 0 : 1;
+            exceeded = exceedsLimits(slot, epoch, transferAmount, newCounterparties);
+            if (!exceeded || !rejecting) {
+                record(slot, epoch, transferAmount, newCounterparties);
+                markCounterparty(pairHash, generation);
+            }
+        } finally {
+            stripeLock.unlock();
+        }
+
+        if (exceeded) {
+            if (rejecting) {
+                throw TransferVelocityExceededException.INSTANCE;
+            }
+            log.warn("Transfer velocity limit exceeded for account {}", accountFromId);
+        }
+    }
+
+    /**
+     * Scores a multi-leg transfer: every debited account once, with its total debit, against the
+     * set of credited accounts. The stripes of all debited accounts are held, taken in index order,
+     * while every debit is checked and recorded, so in reject mode a transfer that fails leaves the
+     * windows untouched.
+     */
+    public void checkMultiLegTransfer(Map<String, BigDecimal> debitTotals, Set<String> creditAccountIds)
+            throws TransferVelocityExceededException {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long generation = rotateSketches(now);
+        long epoch = now / bucketMillis;
+
+        boolean[] stripes = new boolean[STRIPES];
+        for (String accountId : debitTotals.keySet()) {
+            stripes[slotOf(accountId) & (STRIPES - 1)] = true;
+        }
+        String exceededAccountId = null;
+        int locked = 0;
+        try {
+            for (; locked < STRIPES; locked++) {
+                if (stripes[locked]) {
+                    stripeLocks[locked].lock();
+                }
+            }
+
+            for (Map.Entry<String, BigDecimal> debit : debitTotals.entrySet()) {
+                int newCounterparties = newCounterparties(debit.getKey(), creditAccountIds, generation);
+                if (exceedsLimits(slotOf(debit.getKey()), epoch, debit.getValue().doubleValue(), newCounterparties)) {
+                    exceededAccountId = debit.getKey();
+                    break;
+                }
+            }
+            if (exceededAccountId != null && rejecting) {
+                throw TransferVelocityExceededException.INSTANCE;
+            }
+
+            for (Map.Entry<String, BigDecimal> debit : debitTotals.entrySet()) {
+                int newCounterparties = newCounterparties(debit.getKey(), creditAccountIds, generation);
+                record(slotOf(debit.getKey()), epoch, debit.getValue().doubleValue(), newCounterparties);
+                for (String creditAccountId : creditAccountIds) {
+                    markCounterparty(pairHash(debit.getKey(), creditAccountId), generation);
+                }
+            }
+        } finally {
+            while (locked-- > 0) {
+                if (stripes[locked]) {
+                    stripeLocks[locked].unlock();
+                }
+            }
+        }
+        if (exceededAccountId != null) {
+            log.warn("Transfer velocity limit exceeded for account {}", exceededAccountId);
+        }
+    }
+
+    private int newCounterparties(String accountFromId, Set<String> accountToIds, long generation) {
+        int newCounterparties = 0;
+        for (String accountToId : accountToIds) {
+            if (!isKnownCounterparty(pairHash(accountFromId, accountToId), generation)) {
+                newCounterparties++;
+            }
+        }
+        return newCounterparties;
+    }
+
+    /**
+     * Checks whether one more transfer would take the slot over a limit. Must hold the slot's stripe lock.
+     */
+    private boolean exceedsLimits(int slot, long epoch, double amount, int newCounterparties) {
+        int base = slot * buckets;
+
+        int windowCount = 1;
+        double windowAmount = amount;
+        int windowNewCounterparties = newCounterparties;
+        for (int i = 0; i < buckets; i++) {
+            if (bucketEpochs[base + i] > epoch - buckets) {
+                windowCount += transferCounts[base + i];
+                windowAmount += transferAmounts[base + i];
+                windowNewCounterparties += newCounterpartyCounts[base + i];
+            }
+        }
+        return windowCount > maxTransfers
+                || windowAmount > maxAmount
+                || windowNewCounterparties > maxNewCounterparties;
+    }
+
+    /**
+     * Adds a transfer to the slot's current bucket. Must hold the slot's stripe lock.
+     */
+    private void record(int slot, long epoch, double amount, int newCounterparties) {
+        int index = slot * buckets + (int) Math.floorMod(epoch, (long) buckets);
+        if (bucketEpochs[index] != epoch) {
+            bucketEpochs[index] = epoch;
+            transferCounts[index] = 0;
+            transferAmounts[index] = 0;
+            newCounterpartyCounts[index] = 0;
+        }
+        transferCounts[index]++;
+        transferAmounts[index] += amount;
+        newCounterpartyCounts[index] += newCounterparties;
+    }
+
+    /**
+     * Moves the sketches on to the window {@code now} falls in, clearing the generation that
+     * drops out, and returns that window's generation.
+     */
+    private long rotateSketches(long now) {
+        long generation = now / windowMillis;
+        if (generation <= sketchGeneration) {
+            return sketchGeneration;
+        }
+        synchronized (sketches) {
+            long previous = sketchGeneration;
+            if (generation > previous) {
+                clear(sketches[(int) (generation & 1)]);
+                if (generation - previous > 1) {
+                    clear(sketches[(int) ((generation - 1) & 1)]);
+                }
+                sketchGeneration = generation;
+            }
+        }
+        return generation;
+    }
+
+    private int slotOf(String accountId) {
+        return spread(accountId.hashCode()) & slotMask;
+    }
+
+    private boolean isKnownCounterparty(long pairHash, long generation) {
+        return sketchContains(sketches[(int) (generation & 1)], pairHash)
+                || sketchContains(sketches[(int) ((generation - 1) & 1)], pairHash);
+    }
+
+    private void markCounterparty(long pairHash, long generation) {
+        AtomicIntegerArray current = sketches[(int) (generation & 1)];
+        if (!sketchContains(current, pairHash)) {
+            for (int row = 0; row < sketchDepth; row++) {
+                current.incrementAndGet(sketchIndex(pairHash, row));
+            }
+        }
+    }
+
+    private boolean sketchContains(AtomicIntegerArray sketch, long pairHash) {
+        for (int row = 0; row < sketchDepth; row++) {
+            if (sketch.get(sketchIndex(pairHash, row)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int sketchIndex(long pairHash, int row) {
+        long h = mix64(pairHash + (row + 1) * 0x9E3779B97F4A7C15L);
+        return row * (sketchWidthMask + 1) + ((int) h & sketchWidthMask);
+    }
+
+    private static void clear(AtomicIntegerArray sketch) {
+        for (int i = 0; i < sketch.length(); i++) {
+            sketch.set(i, 0);
+        }
+    }
+
+    private static long pairHash(String accountFromId, String accountToId) {
+        return ((long) accountFromId.hashCode() << 32) ^ (accountToId.hashCode() & 0xFFFFFFFFL);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private static int powerOfTwoAtLeast(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+}
@@ -1,14 +1,20 @@
 package com.dws.challenge.web;
 
+import com.dws.challenge.admission.TransferAdmissionControl;
 import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.MultiLegTransferRequest;
 import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.AccountNotFoundException;
 import com.dws.challenge.exception.DuplicateAccountIdException;
 import com.dws.challenge.exception.InsufficientBalanceException;
 import com.dws.challenge.exception.InvalidTransferAmountException;
+import com.dws.challenge.exception.TransferVelocityExceededException;
+import com.dws.challenge.replication.ReplicationFollower;
 import com.dws.challenge.service.AccountsService;
 import com.dws.challenge.service.MoneyTransferService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,27 +25,41 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.security.auth.login.AccountNotFoundException;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/v1/accounts")
 @Slf4j
 public class AccountsController {
 
+  private static final String REPLICATION_LAG_HEADER = "X-Replication-Lag-Ms";
+  private static final String CLIENT_ID_HEADER = "X-Client-Id";
+
   private final AccountsService accountsService;
   private final MoneyTransferService moneyTransferService;
+  private final TransferAdmissionControl transferAdmissionControl;
+  private final Optional<ReplicationFollower> replicationFollower;
 
   @Autowired
-  public AccountsController(AccountsService accountsService, MoneyTransferService moneyTransferService) {
+  public AccountsController(AccountsService accountsService, MoneyTransferService moneyTransferService,
+                            TransferAdmissionControl transferAdmissionControl,
+                            Optional<ReplicationFollower> replicationFollower) {
     this.accountsService = accountsService;
     this.moneyTransferService = moneyTransferService;
+    this.transferAdmissionControl = transferAdmissionControl;
+    this.replicationFollower = replicationFollower;
   }
 
   @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<Object> createAccount(@RequestBody @Valid Account account) {
     log.info("Creating account {}", account);
 
+    if (replicationFollower.isPresent()) {
+      return readOnlyReplica();
+    }
+
     try {
     this.accountsService.createAccount(account);
     } catch (DuplicateAccountIdException daie) {
@@ -50,24 +70,73 @@ public class AccountsController {
   }
 
   @GetMapping(path = "/{accountId}")
-  public Account getAccount(@PathVariable String accountId) {
+  public ResponseEntity<Account> getAccount(@PathVariable String accountId) {
     log.info("Retrieving account for id {}", accountId);
-    return this.accountsService.getAccount(accountId);
+    Account account = this.accountsService.getAccount(accountId);
+
+    // Followers report how far behind the leader the returned balance may be
+    return replicationFollower
+            .map(follower -> ResponseEntity.ok()
+                    .header(REPLICATION_LAG_HEADER, String.valueOf(follower.getReplicationLagMillis()))
+                    .body(account))
+            .orElseGet(() -> ResponseEntity.ok(account));
   }
 
   @PostMapping(path = "/transfer", consumes = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<Object> transferMoney(@RequestBody @Valid TransferRequest transferRequest) {
+  public ResponseEntity<Object> transferMoney(@RequestBody @Valid TransferRequest transferRequest,
+                                              HttpServletRequest request) {
     log.info("Transferring money: {}", transferRequest);
 
+    return admitTransfer(request, () -> moneyTransferService.transferMoney(
+            transferRequest.getAccountFrom(),
+            transferRequest.getAccountTo(),
+            transferRequest.getAmount()
+    ));
+  }
+
+  @PostMapping(path = "/transfer/multi-leg", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Object> transferMoneyMultiLeg(@RequestBody @Valid MultiLegTransferRequest transferRequest,
+                                                      HttpServletRequest request) {
+    log.info("Transferring money in multiple legs: {}", transferRequest);
+
+    return admitTransfer(request, () -> moneyTransferService.transferMoney(
+            transferRequest.getDebits(),
+            transferRequest.getCredits()
+    ));
+  }
+
+  private ResponseEntity<Object> admitTransfer(HttpServletRequest request, Transfer transfer) {
+    if (replicationFollower.isPresent()) {
+      return readOnlyReplica();
+    }
+
+    // Turn excess load away before it queues behind the account monitors
+    long retryAfterSeconds = transferAdmissionControl.tryAcquire(transferAdmissionControl.resolveClientId(
+            request.getUserPrincipal(), request.getRemoteAddr(), request.getHeader(CLIENT_ID_HEADER)));
+    if (retryAfterSeconds > 0) {
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+              .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+              .build();
+    }
+
+    long startNanos = System.nanoTime();
     try {
-      moneyTransferService.transferMoney(
-              transferRequest.getAccountFrom(),
-              transferRequest.getAccountTo(),
-              transferRequest.getAmount()
-      );
+      transfer.execute();
       return new ResponseEntity<>(HttpStatus.OK);
-    } catch (AccountNotFoundException | InvalidTransferAmountException | InsufficientBalanceException e) {
+    } catch (AccountNotFoundException | InvalidTransferAmountException | InsufficientBalanceException
+            | TransferVelocityExceededException e) {
       return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    } finally {
+      transferAdmissionControl.release(startNanos);
     }
   }
-}
+
+  private ResponseEntity<Object> readOnlyReplica() {
+    return new ResponseEntity<>("Read-only replica, send writes to the replication leader", HttpStatus.FORBIDDEN);
+  }
+
+  private interface Transfer {
+    void execute() throws AccountNotFoundException, InvalidTransferAmountException, InsufficientBalanceException,
+            TransferVelocityExceededException;
+  }
+}
\ No newline at end of file
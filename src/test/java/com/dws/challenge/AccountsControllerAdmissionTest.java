@@ -0,0 +1,91 @@
+package com.dws.challenge;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import java.math.BigDecimal;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.service.AccountsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.context.WebApplicationContext;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@WebAppConfiguration
+@TestPropertySource(properties = {
+        "admission.enabled=true",
+        "admission.client.burst=1",
+        "admission.client.rate-per-second=0.001"
+})
+class AccountsControllerAdmissionTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountsService accountsService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @BeforeEach
+    void prepareMockMvc() {
+        this.mockMvc = webAppContextSetup(this.webApplicationContext).build();
+
+        accountsService.getAccountsRepository().clearAccounts();
+        accountsService.createAccount(new Account("Id-1", new BigDecimal("100.00")));
+        accountsService.createAccount(new Account("Id-2", new BigDecimal("0.00")));
+    }
+
+    @Test
+    void transferOverClientRateIsRejectedWithRetryAfter() throws Exception {
+        // Each test is its own client, so the buckets of the shared context do not carry over
+        RequestPostProcessor client = remoteAddress("10.0.0.1");
+        String transfer = "{\"accountFrom\":\"Id-1\",\"accountTo\":\"Id-2\",\"amount\":10.00}";
+
+        this.mockMvc.perform(post("/v1/accounts/transfer").with(client)
+                        .contentType(MediaType.APPLICATION_JSON).content(transfer))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(post("/v1/accounts/transfer").with(client)
+                        .contentType(MediaType.APPLICATION_JSON).content(transfer))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void multiLegTransferOverClientRateIsRejectedWithRetryAfter() throws Exception {
+        RequestPostProcessor client = remoteAddress("10.0.0.2");
+        String transfer = "{\"debits\":[{\"accountId\":\"Id-1\",\"amount\":10.00}],"
+                + "\"credits\":[{\"accountId\":\"Id-2\",\"amount\":10.00}]}";
+
+        this.mockMvc.perform(post("/v1/accounts/transfer/multi-leg").with(client)
+                        .contentType(MediaType.APPLICATION_JSON).content(transfer))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(post("/v1/accounts/transfer/multi-leg").with(client)
+                        .contentType(MediaType.APPLICATION_JSON).content(transfer))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
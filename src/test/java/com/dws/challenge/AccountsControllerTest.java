@@ -164,5 +164,59 @@ class AccountsControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
-}
+    @Test
+    void transferMoneyMultiLeg() throws Exception {
+        accountsService.createAccount(new Account("Id-merchant", new BigDecimal("100.00")));
+        accountsService.createAccount(new Account("Id-seller", new BigDecimal("0.00")));
+        accountsService.createAccount(new Account("Id-fee", new BigDecimal("0.00")));
+        accountsService.createAccount(new Account("Id-tax", new BigDecimal("0.00")));
+
+        this.mockMvc.perform(post("/v1/accounts/transfer/multi-leg")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"debits\":[{\"accountId\":\"Id-merchant\",\"amount\":100.00}],"
+                                + "\"credits\":[{\"accountId\":\"Id-seller\",\"amount\":80.00},"
+                                + "{\"accountId\":\"Id-fee\",\"amount\":5.00},"
+                                + "{\"accountId\":\"Id-tax\",\"amount\":15.00}]}"))
+                .andExpect(status().isOk());
+
+        assertThat(accountsService.getAccount("Id-merchant").getBalance()).isEqualByComparingTo("0.00");
+        assertThat(accountsService.getAccount("Id-seller").getBalance()).isEqualByComparingTo("80.00");
+        assertThat(accountsService.getAccount("Id-fee").getBalance()).isEqualByComparingTo("5.00");
+        assertThat(accountsService.getAccount("Id-tax").getBalance()).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void transferMoneyMultiLegUnbalanced() throws Exception {
+        accountsService.createAccount(new Account("Id-merchant", new BigDecimal("100.00")));
+        accountsService.createAccount(new Account("Id-seller", new BigDecimal("0.00")));
+
+        this.mockMvc.perform(post("/v1/accounts/transfer/multi-leg")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"debits\":[{\"accountId\":\"Id-merchant\",\"amount\":100.00}],"
+                                + "\"credits\":[{\"accountId\":\"Id-seller\",\"amount\":90.00}]}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(accountsService.getAccount("Id-merchant").getBalance()).isEqualByComparingTo("100.00");
+        assertThat(accountsService.getAccount("Id-seller").getBalance()).isEqualByComparingTo("0.00");
+    }
 
+    @Test
+    void transferMoneyMultiLegInsufficientBalance() throws Exception {
+        accountsService.createAccount(new Account("Id-payer-1", new BigDecimal("100.00")));
+        accountsService.createAccount(new Account("Id-payer-2", new BigDecimal("10.00")));
+        accountsService.createAccount(new Account("Id-payee", new BigDecimal("0.00")));
+
+        // The second debit cannot be covered, so the first one must not be applied either
+        this.mockMvc.perform(post("/v1/accounts/transfer/multi-leg")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"debits\":[{\"accountId\":\"Id-payer-1\",\"amount\":50.00},"
+                                + "{\"accountId\":\"Id-payer-2\",\"amount\":50.00}],"
+                                + "\"credits\":[{\"accountId\":\"Id-payee\",\"amount\":100.00}]}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(accountsService.getAccount("Id-payer-1").getBalance()).isEqualByComparingTo("100.00");
+        assertThat(accountsService.getAccount("Id-payer-2").getBalance()).isEqualByComparingTo("10.00");
+        assertThat(accountsService.getAccount("Id-payee").getBalance()).isEqualByComparingTo("0.00");
+    }
+
+}
@@ -1,11 +1,16 @@
 package com.dws.challenge;
 
 import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.MultiLegTransferRequest;
+import com.dws.challenge.domain.TransferLeg;
+import com.dws.challenge.exception.AccountNotFoundException;
 import com.dws.challenge.exception.InsufficientBalanceException;
 import com.dws.challenge.exception.InvalidTransferAmountException;
+import com.dws.challenge.exception.TransferVelocityExceededException;
 import com.dws.challenge.repository.AccountsRepository;
 import com.dws.challenge.service.MoneyTransferService;
 import com.dws.challenge.service.NotificationService;
+import com.dws.challenge.service.TransferVelocityService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -14,8 +19,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import javax.security.auth.login.AccountNotFoundException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,8 +41,12 @@ public class MoneyTransferServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private TransferVelocityService transferVelocityService;
+
     @Test
-    public void testMoneyTransfer() throws AccountNotFoundException, InvalidTransferAmountException, InsufficientBalanceException {
+    public void testMoneyTransfer() throws AccountNotFoundException, InvalidTransferAmountException, InsufficientBalanceException,
+            TransferVelocityExceededException {
         String uniqueAccountIdFrom = "Id-" + System.currentTimeMillis() + "from";
         String uniqueAccountIdTo = "Id-" + System.currentTimeMillis() + "to";
 
@@ -58,7 +70,8 @@ public class MoneyTransferServiceTest {
     }
 
     @Test
-    public void testMoneyTransferInsufficientBalance() throws InvalidTransferAmountException, InsufficientBalanceException, AccountNotFoundException {
+    public void testMoneyTransferInsufficientBalance() throws InvalidTransferAmountException, InsufficientBalanceException, AccountNotFoundException,
+            TransferVelocityExceededException {
         String uniqueAccountIdFrom = "Id-" + System.currentTimeMillis() + "from";
         String uniqueAccountIdTo = "Id-" + System.currentTimeMillis() + "to";
 
@@ -86,4 +99,84 @@ public class MoneyTransferServiceTest {
         verify(notificationService, never()).notifyAboutTransfer(any(), anyString());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testMultiLegTransfer() throws AccountNotFoundException, InvalidTransferAmountException,
+            InsufficientBalanceException, TransferVelocityExceededException {
+        Account merchant = new Account("Id-merchant", new BigDecimal("100.00"));
+        Account seller = new Account("Id-seller", new BigDecimal("0.00"));
+        Account fee = new Account("Id-fee", new BigDecimal("0.00"));
+
+        when(accountsRepository.getAccount("Id-merchant")).thenReturn(merchant);
+        when(accountsRepository.getAccount("Id-seller")).thenReturn(seller);
+        when(accountsRepository.getAccount("Id-fee")).thenReturn(fee);
+
+        moneyTransferService.transferMoney(
+                List.of(new TransferLeg("Id-merchant", new BigDecimal("100.00"))),
+                List.of(new TransferLeg("Id-seller", new BigDecimal("95.00")),
+                        new TransferLeg("Id-fee", new BigDecimal("5.00"))));
+
+        // One repository call with the net change of every participant
+        verify(accountsRepository).transferMoney(Map.of(
+                "Id-merchant", new BigDecimal("-100.00"),
+                "Id-seller", new BigDecimal("95.00"),
+                "Id-fee", new BigDecimal("5.00")));
+
+        // The debited account is scored once against all credited accounts
+        verify(transferVelocityService).checkMultiLegTransfer(Map.of("Id-merchant", new BigDecimal("100.00")),
+                Set.of("Id-seller", "Id-fee"));
+
+        // One notification per participant
+        verify(notificationService, times(3)).notifyAboutTransfer(any(), anyString());
+    }
+
+    @Test
+    public void testMultiLegTransferLeavesNettedParticipantAlone() throws AccountNotFoundException,
+            InvalidTransferAmountException, InsufficientBalanceException, TransferVelocityExceededException {
+        Account netted = new Account("Id-A", new BigDecimal("100.00"));
+        Account payer = new Account("Id-B", new BigDecimal("100.00"));
+        Account payee = new Account("Id-C", new BigDecimal("0.00"));
+
+        when(accountsRepository.getAccount("Id-A")).thenReturn(netted);
+        when(accountsRepository.getAccount("Id-B")).thenReturn(payer);
+        when(accountsRepository.getAccount("Id-C")).thenReturn(payee);
+
+        moneyTransferService.transferMoney(
+                List.of(new TransferLeg("Id-A", new BigDecimal("50.00")),
+                        new TransferLeg("Id-B", new BigDecimal("50.00"))),
+                List.of(new TransferLeg("Id-A", new BigDecimal("50.00")),
+                        new TransferLeg("Id-C", new BigDecimal("50.00"))));
+
+        // Id-A is debited and credited the same amount, so only Id-B and Id-C take part
+        verify(accountsRepository).transferMoney(Map.of(
+                "Id-B", new BigDecimal("-50.00"),
+                "Id-C", new BigDecimal("50.00")));
+        verify(notificationService, never()).notifyAboutTransfer(eq(netted), anyString());
+        verify(notificationService, times(2)).notifyAboutTransfer(any(), anyString());
+    }
+
+    @Test
+    public void testMultiLegTransferUnbalanced() throws InvalidTransferAmountException, InsufficientBalanceException,
+            AccountNotFoundException {
+        assertThrows(InvalidTransferAmountException.class, () -> moneyTransferService.transferMoney(
+                List.of(new TransferLeg("Id-merchant", new BigDecimal("100.00"))),
+                List.of(new TransferLeg("Id-seller", new BigDecimal("90.00")))));
+
+        verify(accountsRepository, never()).transferMoney(anyMap());
+        verify(notificationService, never()).notifyAboutTransfer(any(), anyString());
+    }
+
+    @Test
+    public void testMultiLegTransferWithTooManyLegs() throws InvalidTransferAmountException,
+            InsufficientBalanceException, AccountNotFoundException {
+        List<TransferLeg> credits = new ArrayList<>();
+        for (int i = 0; i <= MultiLegTransferRequest.MAX_LEGS; i++) {
+            credits.add(new TransferLeg("Id-" + i, new BigDecimal("1.00")));
+        }
+
+        assertThrows(InvalidTransferAmountException.class, () -> moneyTransferService.transferMoney(
+                List.of(new TransferLeg("Id-merchant", new BigDecimal(credits.size()))), credits));
+
+        verify(accountsRepository, never()).transferMoney(anyMap());
+    }
+
+}
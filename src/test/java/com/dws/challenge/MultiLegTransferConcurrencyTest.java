@@ -0,0 +1,88 @@
+package com.dws.challenge;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.TransferLeg;
+import com.dws.challenge.repository.AccountsRepository;
+import com.dws.challenge.service.MoneyTransferService;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class MultiLegTransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int TRANSFERS = 20_000;
+
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+
+    @RepeatedTest(3)
+    @Timeout(value = 30)
+    void shouldMixSingleAndMultiLegTransfersWithoutDeadlock() throws Exception {
+        AccountsRepository accountsRepository = moneyTransferService.getAccountsRepository();
+        accountsRepository.clearAccounts();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountsRepository.createAccount(new Account("Id-" + i, new BigDecimal("1000.00")));
+        }
+
+        // Every transfer touches a few of the same eight accounts, in every order
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        for (int i = 0; i < TRANSFERS; i++) {
+            Random random = new Random(i);
+            boolean multiLeg = i % 2 == 0;
+            executorService.submit(() -> {
+                try {
+                    if (multiLeg) {
+                        BigDecimal first = amount(random);
+                        BigDecimal second = amount(random);
+                        moneyTransferService.transferMoney(
+                                List.of(new TransferLeg(accountId(random), first),
+                                        new TransferLeg(accountId(random), second)),
+                                List.of(new TransferLeg(accountId(random), first),
+                                        new TransferLeg(accountId(random), second)));
+                    } else {
+                        String accountFromId = accountId(random);
+                        String accountToId = accountId(random);
+                        if (!accountFromId.equals(accountToId)) {
+                            moneyTransferService.transferMoney(accountFromId, accountToId, amount(random));
+                        }
+                    }
+                } catch (Exception e) {
+                    // Insufficient balance is expected once money has piled up on some accounts
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(25, TimeUnit.SECONDS));
+
+        // Money only moves between the accounts, so the total is conserved
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            total = total.add(accountsRepository.getAccount("Id-" + i).getBalance());
+        }
+        assertEquals(new BigDecimal("8000.00"), total);
+    }
+
+    private static String accountId(Random random) {
+        return "Id-" + random.nextInt(ACCOUNTS);
+    }
+
+    private static BigDecimal amount(Random random) {
+        return BigDecimal.valueOf(1 + random.nextInt(500), 2);
+    }
+}
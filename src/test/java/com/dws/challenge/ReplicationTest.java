@@ -0,0 +1,182 @@
+package com.dws.challenge;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.repository.AccountsRepositoryInMemory;
+import com.dws.challenge.replication.ReplicatingAccountsRepository;
+import com.dws.challenge.replication.ReplicationFollower;
+import com.dws.challenge.replication.ReplicationLeader;
+import com.dws.challenge.replication.ReplicationLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicationTest {
+
+    private static final int LOG_CAPACITY = 64;
+
+    private AccountsRepositoryInMemory followerRepository;
+    private ReplicationLog replicationLog;
+    private ReplicatingAccountsRepository leaderRepository;
+    private ReplicationLeader leader;
+    private ReplicationFollower follower;
+
+    @BeforeEach
+    void startLeaderAndFollower() throws Exception {
+        startLeader(0);
+
+        followerRepository = new AccountsRepositoryInMemory();
+        follower = new ReplicationFollower(followerRepository, "localhost", leader.getLocalPort(), 50);
+        follower.start();
+    }
+
+    private void startLeader(int port) throws Exception {
+        replicationLog = new ReplicationLog(LOG_CAPACITY);
+        leaderRepository = new ReplicatingAccountsRepository(new AccountsRepositoryInMemory(), replicationLog);
+        leader = new ReplicationLeader(replicationLog, leaderRepository, "127.0.0.1", port, 16, 50);
+        leader.start();
+    }
+
+    @AfterEach
+    void stopLeaderAndFollower() throws Exception {
+        follower.stop();
+        leader.stop();
+    }
+
+    @Test
+    @Timeout(value = 10)
+    void followerAppliesLeaderMutationsInOrder() throws Exception {
+        leaderRepository.createAccount(new Account("Id-1", new BigDecimal("100.00")));
+        leaderRepository.createAccount(new Account("Id-2", new BigDecimal("50.00")));
+        for (int i = 0; i < 100; i++) {
+            leaderRepository.transferMoney("Id-1", "Id-2", new BigDecimal("0.50"));
+        }
+
+        awaitSequence(replicationLog.getLastSequence());
+
+        assertThat(followerRepository.getAccount("Id-1").getBalance()).isEqualByComparingTo("50.00");
+        assertThat(followerRepository.getAccount("Id-2").getBalance()).isEqualByComparingTo("100.00");
+        assertThat(follower.getReplicationLagMillis()).isZero();
+    }
+
+    @Test
+    @Timeout(value = 10)
+    void idleFollowerReportsLagFromLastCaughtUpFrame() throws Exception {
+        leaderRepository.createAccount(new Account("Id-1", new BigDecimal("100.00")));
+        awaitSequence(replicationLog.getLastSequence());
+
+        // Heartbeats keep an idle follower caught up, so the age of the last mutation does not count
+        Thread.sleep(1500);
+        assertThat(follower.getReplicationLagMillis()).isZero();
+
+        follower.stop();
+        assertThat(follower.getReplicationLagMillis()).isBetween(0L, 1000L);
+    }
+
+    @Test
+    @Timeout(value = 10)
+    void followerCatchesUpAfterReconnecting() throws Exception {
+        leaderRepository.createAccount(new Account("Id-1", new BigDecimal("100.00")));
+        awaitSequence(replicationLog.getLastSequence());
+
+        follower.stop();
+        leaderRepository.createAccount(new Account("Id-2", new BigDecimal("0.00")));
+        leaderRepository.transferMoney("Id-1", "Id-2", new BigDecimal("25.00"));
+        follower.start();
+
+        awaitSequence(replicationLog.getLastSequence());
+
+        assertThat(followerRepository.getAccount("Id-1").getBalance()).isEqualByComparingTo("75.00");
+        assertThat(followerRepository.getAccount("Id-2").getBalance()).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    @Timeout(value = 10)
+    void followerBehindRetainedLogResyncsFromSnapshot() throws Exception {
+        leaderRepository.createAccount(new Account("Id-1", new BigDecimal("1000.00")));
+        leaderRepository.createAccount(new Account("Id-2", new BigDecimal("0.00")));
+        awaitSequence(replicationLog.getLastSequence());
+
+        follower.stop();
+        for (int i = 0; i < LOG_CAPACITY * 2; i++) {
+            leaderRepository.transferMoney("Id-1", "Id-2", new BigDecimal("1.00"));
+        }
+        leaderRepository.createAccount(new Account("Id-3", new BigDecimal("7.00")));
+        follower.start();
+
+        awaitSequence(replicationLog.getLastSequence());
+
+        assertThat(followerRepository.getAccount("Id-1").getBalance()).isEqualByComparingTo("872.00");
+        assertThat(followerRepository.getAccount("Id-2").getBalance()).isEqualByComparingTo("128.00");
+        assertThat(followerRepository.getAccount("Id-3").getBalance()).isEqualByComparingTo("7.00");
+    }
+
+    @Test
+    @Timeout(value = 10)
+    void followerReplicatesAccountIdsLongerThan64K() throws Exception {
+        String longId = "Id-" + "x".repeat(100_000);
+        leaderRepository.createAccount(new Account(longId, new BigDecimal("100.00")));
+        leaderRepository.createAccount(new Account("Id-2", new BigDecimal("0.00")));
+        awaitSequence(replicationLog.getLastSequence());
+        assertThat(followerRepository.getAccount(longId).getBalance()).isEqualByComparingTo("100.00");
+
+        // And through a snapshot
+        follower.stop();
+        for (int i = 0; i < LOG_CAPACITY * 2; i++) {
+            leaderRepository.transferMoney(longId, "Id-2", new BigDecimal("0.50"));
+        }
+        follower.start();
+        awaitSequence(replicationLog.getLastSequence());
+
+        assertThat(followerRepository.getAccount(longId).getBalance()).isEqualByComparingTo("36.00");
+    }
+
+    @Test
+    @Timeout(value = 10)
+    void followerResyncsWhenAMutationFailsToApply() throws Exception {
+        leaderRepository.createAccount(new Account("Id-1", new BigDecimal("100.00")));
+        leaderRepository.createAccount(new Account("Id-2", new BigDecimal("0.00")));
+        awaitSequence(replicationLog.getLastSequence());
+
+        // The replica diverges, so the next transfer cannot be applied
+        followerRepository.clearAccounts();
+        leaderRepository.transferMoney("Id-1", "Id-2", new BigDecimal("40.00"));
+
+        awaitSequence(replicationLog.getLastSequence());
+
+        assertThat(followerRepository.getAccount("Id-1").getBalance()).isEqualByComparingTo("60.00");
+        assertThat(followerRepository.getAccount("Id-2").getBalance()).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    @Timeout(value = 10)
+    void followerResyncsFromRestartedLeader() throws Exception {
+        leaderRepository.createAccount(new Account("Id-old", new BigDecimal("100.00")));
+        leaderRepository.createAccount(new Account("Id-1", new BigDecimal("100.00")));
+        leaderRepository.transferMoney("Id-1", "Id-old", new BigDecimal("10.00"));
+        awaitSequence(replicationLog.getLastSequence());
+
+        // The new leader starts its sequence over, below the follower's
+        int port = leader.getLocalPort();
+        leader.stop();
+        startLeader(port);
+        leaderRepository.createAccount(new Account("Id-1", new BigDecimal("5.00")));
+
+        while (followerRepository.getAccount("Id-old") != null
+                || follower.getAppliedSequence() != replicationLog.getLastSequence()) {
+            Thread.sleep(10);
+        }
+
+        assertThat(followerRepository.getAccount("Id-1").getBalance()).isEqualByComparingTo("5.00");
+    }
+
+    private void awaitSequence(long sequence) throws InterruptedException {
+        while (follower.getAppliedSequence() < sequence) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.dws.challenge;
+
+import com.dws.challenge.admission.AimdLimit;
+import com.dws.challenge.admission.ClientRateLimiter;
+import com.dws.challenge.admission.GradientLimit;
+import com.dws.challenge.admission.TransferAdmissionControl;
+import com.dws.challenge.admission.VegasLimit;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransferAdmissionControlTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    public void testClientIsLimitedAfterBurst() {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(10, 5, 1024, nanos::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire("client-1")).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire("client-1")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        // Other clients have their own bucket
+        assertThat(rateLimiter.tryAcquire("client-2")).isZero();
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(rateLimiter.tryAcquire("client-1")).isZero();
+    }
+
+    @Test
+    public void testRejectsWithRetryAfterWhenClientIsLimited() {
+        TransferAdmissionControl admissionControl = new TransferAdmissionControl(true,
+                new AimdLimit(10, 1, 10, 0.5, Long.MAX_VALUE), new ClientRateLimiter(0.5, 1, 1024, nanos::get),
+                Set.of());
+
+        assertThat(admissionControl.tryAcquire("client-1")).isZero();
+        assertThat(admissionControl.tryAcquire("client-1")).isEqualTo(2);
+    }
+
+    @Test
+    public void testClientIdHeaderIsOnlyTrustedFromProxies() {
+        TransferAdmissionControl admissionControl = new TransferAdmissionControl(true,
+                new AimdLimit(10, 1, 10, 0.5, Long.MAX_VALUE), new ClientRateLimiter(1, 1, 1024, nanos::get),
+                Set.of("10.0.0.1"));
+
+        assertThat(admissionControl.resolveClientId(null, "10.0.0.1", "client-1")).isEqualTo("client-1");
+        assertThat(admissionControl.resolveClientId(null, "10.0.0.2", "client-1")).isEqualTo("10.0.0.2");
+        assertThat(admissionControl.resolveClientId(() -> "alice", "10.0.0.1", "client-1")).isEqualTo("alice");
+    }
+
+    @Test
+    public void testRejectsOverConcurrencyLimit() {
+        TransferAdmissionControl admissionControl = new TransferAdmissionControl(true,
+                new AimdLimit(2, 1, 2, 0.5, Long.MAX_VALUE), new ClientRateLimiter(1000, 1000, 1024, nanos::get),
+                Set.of());
+
+        assertThat(admissionControl.tryAcquire("client-1")).isZero();
+        assertThat(admissionControl.tryAcquire("client-2")).isZero();
+        assertThat(admissionControl.tryAcquire("client-3")).isEqualTo(1);
+
+        admissionControl.release(System.nanoTime());
+        assertThat(admissionControl.tryAcquire("client-3")).isZero();
+        assertThat(admissionControl.getInflight()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrencyRejectionKeepsClientTokens() {
+        TransferAdmissionControl admissionControl = new TransferAdmissionControl(true,
+                new AimdLimit(1, 1, 1, 0.5, Long.MAX_VALUE), new ClientRateLimiter(0.5, 1, 1024, nanos::get),
+                Set.of());
+
+        assertThat(admissionControl.tryAcquire("client-1")).isZero();
+        assertThat(admissionControl.tryAcquire("client-2")).isEqualTo(1);
+        assertThat(admissionControl.tryAcquire("client-2")).isEqualTo(1);
+
+        admissionControl.release(System.nanoTime());
+        assertThat(admissionControl.tryAcquire("client-2")).isZero();
+    }
+
+    @Test
+    public void testRateRejectionReturnsConcurrencySlot() {
+        TransferAdmissionControl admissionControl = new TransferAdmissionControl(true,
+                new AimdLimit(2, 1, 2, 0.5, Long.MAX_VALUE), new ClientRateLimiter(0.5, 1, 1024, nanos::get),
+                Set.of());
+
+        assertThat(admissionControl.tryAcquire("client-1")).isZero();
+        assertThat(admissionControl.tryAcquire("client-1")).isEqualTo(2);
+
+        assertThat(admissionControl.getInflight()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAimdBacksOffOnSlowTransfers() {
+        AimdLimit limit = new AimdLimit(20, 1, 100, 0.5, TimeUnit.MILLISECONDS.toNanos(50));
+
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 20);
+        assertThat(limit.getLimit()).isEqualTo(21);
+
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(100), 20);
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testVegasShrinksWhenLatencyQueuesUp() {
+        VegasLimit limit = new VegasLimit(100, 1, 1000, 1000);
+
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 100);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 100);
+        }
+
+        assertThat(limit.getLimit()).isLessThan(100);
+    }
+
+    @Test
+    public void testGradientShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(100, 1, 1000, 1.5, 0.2);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 100);
+        }
+        int steadyLimit = limit.getLimit();
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(20), 100);
+        }
+
+        assertThat(limit.getLimit()).isLessThan(steadyLimit);
+    }
+}
@@ -0,0 +1,133 @@
+package com.dws.challenge;
+
+import com.dws.challenge.exception.TransferVelocityExceededException;
+import com.dws.challenge.service.TransferVelocityService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TransferVelocityServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private TransferVelocityService velocityService(String mode, int maxTransfers, String maxAmount,
+                                                    int maxNewCounterparties) {
+        return new TransferVelocityService(true, mode, 60, 12, 1024, maxTransfers, new BigDecimal(maxAmount),
+                maxNewCounterparties, 4096, 4, now::get);
+    }
+
+    @Test
+    public void testRejectsTooManyTransfersInWindow() throws TransferVelocityExceededException {
+        TransferVelocityService service = velocityService("reject", 3, "1000000", 100);
+
+        for (int i = 0; i < 3; i++) {
+            service.checkTransfer("Id-from", "Id-to", BigDecimal.ONE);
+        }
+
+        assertThrows(TransferVelocityExceededException.class,
+                () -> service.checkTransfer("Id-from", "Id-to", BigDecimal.ONE));
+    }
+
+    @Test
+    public void testWindowSlidesPastOldTransfers() throws TransferVelocityExceededException {
+        TransferVelocityService service = velocityService("reject", 3, "1000000", 100);
+
+        for (int i = 0; i < 3; i++) {
+            service.checkTransfer("Id-from", "Id-to", BigDecimal.ONE);
+        }
+        now.addAndGet(61_000L);
+
+        assertDoesNotThrow(() -> service.checkTransfer("Id-from", "Id-to", BigDecimal.ONE));
+    }
+
+    @Test
+    public void testRejectsTooMuchMovedInWindow() throws TransferVelocityExceededException {
+        TransferVelocityService service = velocityService("reject", 100, "100.00", 100);
+
+        service.checkTransfer("Id-from", "Id-to", new BigDecimal("60.00"));
+
+        assertThrows(TransferVelocityExceededException.class,
+                () -> service.checkTransfer("Id-from", "Id-to", new BigDecimal("50.00")));
+        // The rejected transfer is not recorded, so a smaller one still fits
+        assertDoesNotThrow(() -> service.checkTransfer("Id-from", "Id-to", new BigDecimal("40.00")));
+    }
+
+    @Test
+    public void testRejectsFanOutToNewCounterparties() throws TransferVelocityExceededException {
+        TransferVelocityService service = velocityService("reject", 100, "1000000", 2);
+
+        service.checkTransfer("Id-from", "Id-to-1", BigDecimal.ONE);
+        service.checkTransfer("Id-from", "Id-to-2", BigDecimal.ONE);
+        // Known counterparties do not count towards the fan-out limit
+        service.checkTransfer("Id-from", "Id-to-1", BigDecimal.ONE);
+
+        assertThrows(TransferVelocityExceededException.class,
+                () -> service.checkTransfer("Id-from", "Id-to-3", BigDecimal.ONE));
+    }
+
+    @Test
+    public void testCounterpartyIsNewAgainAfterTwoWindows() throws TransferVelocityExceededException {
+        TransferVelocityService service = velocityService("reject", 100, "1000000", 2);
+
+        service.checkTransfer("Id-from", "Id-to-1", BigDecimal.ONE);
+        service.checkTransfer("Id-from", "Id-to-2", BigDecimal.ONE);
+        now.addAndGet(61_000L);
+        // Still known one window later
+        service.checkTransfer("Id-from", "Id-to-1", BigDecimal.ONE);
+        service.checkTransfer("Id-from", "Id-to-2", BigDecimal.ONE);
+        service.checkTransfer("Id-from", "Id-to-3", BigDecimal.ONE);
+        service.checkTransfer("Id-from", "Id-to-4", BigDecimal.ONE);
+
+        assertThrows(TransferVelocityExceededException.class,
+                () -> service.checkTransfer("Id-from", "Id-to-5", BigDecimal.ONE));
+    }
+
+    @Test
+    public void testAlternatingCollidingAccountsShareLimits() {
+        // A single slot makes every account collide
+        TransferVelocityService service = new TransferVelocityService(true, "reject", 60, 12, 1, 5,
+                new BigDecimal("1000000"), 100, 4096, 4, now::get);
+
+        assertThrows(TransferVelocityExceededException.class, () -> {
+            for (int i = 0; i < 10; i++) {
+                service.checkTransfer(i % 2 == 0 ? "acct-A" : "acct-B", "Id-to", BigDecimal.ONE);
+            }
+        });
+
+        // Once the window has passed, the slot starts over
+        now.addAndGet(61_000L);
+        assertDoesNotThrow(() -> service.checkTransfer("acct-C", "Id-to", BigDecimal.ONE));
+    }
+
+    @Test
+    public void testRejectedMultiLegTransferIsNotRecorded() throws TransferVelocityExceededException {
+        TransferVelocityService service = velocityService("reject", 100, "100.00", 100);
+        service.checkTransfer("Id-2", "Id-to", new BigDecimal("30.00"));
+
+        Map<String, BigDecimal> debitTotals = new LinkedHashMap<>();
+        debitTotals.put("Id-1", new BigDecimal("10.00"));
+        debitTotals.put("Id-2", new BigDecimal("80.00"));
+        assertThrows(TransferVelocityExceededException.class,
+                () -> service.checkMultiLegTransfer(debitTotals, Set.of("Id-to")));
+
+        // Id-1 was within its limits but the transfer was rejected, so its debit was not recorded
+        assertDoesNotThrow(() -> service.checkTransfer("Id-1", "Id-to", new BigDecimal("95.00")));
+    }
+
+    @Test
+    public void testFlagModeDoesNotReject() {
+        TransferVelocityService service = velocityService("flag", 1, "1000000", 100);
+
+        assertDoesNotThrow(() -> {
+            service.checkTransfer("Id-from", "Id-to", BigDecimal.ONE);
+            service.checkTransfer("Id-from", "Id-to", BigDecimal.ONE);
+        });
+    }
+}